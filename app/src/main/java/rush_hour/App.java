@@ -1,9 +1,15 @@
 package rush_hour;
 
+import java.util.Arrays;
+
+import rush_hour.cli.BatchSolver;
 import rush_hour.gui.GameSolverGUI;
 
 public class App {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            System.exit(BatchSolver.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         GameSolverGUI.launchApp(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,318 @@
+package rush_hour.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import rush_hour.io.InputReader;
+import rush_hour.io.PuzzleCollectionReader;
+import rush_hour.io.SolutionWriter;
+import rush_hour.model.GameState;
+import rush_hour.solver.GameSolver;
+import rush_hour.solver.algorithm.SearchBudget;
+import rush_hour.solver.cache.SolutionCache;
+import rush_hour.solver.metrics.MetricsExporter;
+
+/**
+ * Headless batch solver. Each puzzle gets a virtual thread that reads and
+ * parses the file, hands the search to a fixed compute pool, and prints one
+ * tab-separated result line as soon as it finishes. A semaphore bounds the
+ * number of puzzles in memory at once.
+ *
+ * With --collection every file may hold many puzzles; they are parsed
+ * lazily in file order and reported as "file:line" of their header.
+ */
+public class BatchSolver {
+    private static final String USAGE = String.join("\n",
+        "Usage: --headless [options] <file-or-directory>...",
+        "  --algorithm <name>   UCS, Greedy Best First, A*, ARA*, IDA*, Fringe, HDA*, SMA*,",
+        "                       Beam Search, Bidirectional BFS, External BFS, Retrograde (default A*)",
+        "  --heuristic <name>   Distance, Blocker Count, Combined, Blocking Chain, Pattern Database (default Combined)",
+        "  --frontier <name>    Binary Heap, Bucket Queue (default Binary Heap); a bucket queue takes options",
+        "                       in parentheses: FIFO or LIFO, and ties on h, ties on g or no ties,",
+        "                       e.g. \"Bucket Queue (LIFO, ties on g)\"",
+        "  --threads <n>        Concurrent searches (default: available processors)",
+        "  --collection         Treat each file as a collection of puzzles written back to back",
+        "  --cache <file>       Reuse and record solutions in a persistent cache file",
+        "  --time-limit <s>     Give up on a puzzle after this many seconds",
+        "  --max-nodes <n>      Give up on a puzzle after expanding this many nodes",
+        "  --max-frontier <n>   Give up on a puzzle when its open list grows past this size",
+        "  --max-memory <mb>    Give up on a puzzle when its estimated footprint passes this size",
+        "  --output <file>      Write every solution as its initial board and move list",
+        "  --metrics <file>     Record search metrics: Prometheus text for *.prom, JSON lines otherwise",
+        "Directories are scanned recursively for *.txt puzzle files.");
+
+    private String algorithm = "A*";
+    private String heuristic = "Combined";
+    private String frontier = "Binary Heap";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean collections = false;
+    private Path cacheFile;
+    private Path outputFile;
+    private long timeLimitMillis, maxNodes, maxFrontier, maxBytes;
+    private SolutionCache cache;
+    private MetricsExporter metrics;
+    private SolutionWriter output;
+    private final List<Path> inputs = new ArrayList<>();
+    private final PrintStream out;
+
+    public BatchSolver(PrintStream out) {
+        this.out = out;
+    }
+
+    public static int run(String[] args) {
+        BatchSolver solver = new BatchSolver(System.out);
+        try {
+            solver.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+        return solver.solveAll();
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--algorithm" -> algorithm = value(args, ++i);
+                case "--heuristic" -> heuristic = value(args, ++i);
+                case "--frontier" -> frontier = value(args, ++i);
+                case "--collection" -> collections = true;
+                case "--cache" -> cacheFile = Paths.get(value(args, ++i));
+                case "--output" -> outputFile = Paths.get(value(args, ++i));
+                case "--metrics" -> metrics = new MetricsExporter(Paths.get(value(args, ++i)));
+                case "--threads" -> {
+                    threads = (int) number(args, ++i);
+                    if (threads < 1) throw new IllegalArgumentException("Thread count must be positive");
+                }
+                case "--time-limit" -> timeLimitMillis = number(args, ++i) * 1000;
+                case "--max-nodes" -> maxNodes = number(args, ++i);
+                case "--max-frontier" -> maxFrontier = number(args, ++i);
+                case "--max-memory" -> maxBytes = number(args, ++i) << 20;
+                default -> {
+                    if (args[i].startsWith("--")) throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    inputs.add(Paths.get(args[i]));
+                }
+            }
+        }
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("No puzzle files or directories given");
+        }
+        // Fail fast on bad names instead of once per puzzle
+        GameSolver.createSolver(algorithm, heuristic, frontier);
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static long number(String[] args, int index) {
+        String text = value(args, index);
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + args[index - 1] + ": " + text);
+        }
+    }
+
+    private int solveAll() {
+        List<Path> files;
+        try {
+            files = collectFiles();
+        } catch (IOException e) {
+            System.err.println("Failed to list puzzles: " + e.getMessage());
+            return 1;
+        }
+        if (cacheFile != null) {
+            try {
+                cache = new SolutionCache(cacheFile, 4096);
+            } catch (IOException e) {
+                System.err.println("Failed to open solution cache: " + e.getMessage());
+                return 1;
+            }
+        }
+        if (outputFile != null) {
+            try {
+                output = new SolutionWriter(outputFile);
+            } catch (IOException e) {
+                System.err.println("Failed to open solution output: " + e.getMessage());
+                return 1;
+            }
+        }
+
+        AtomicInteger solved = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(threads * 2);
+        long start = System.nanoTime();
+
+        out.println("# file\tstatus\tmoves\tnodes\ttime_ms\tdetail");
+        try (ExecutorService compute = Executors.newFixedThreadPool(threads);
+             ExecutorService io = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path file : files) {
+                if (collections) {
+                    solveCollection(file, compute, io, inFlight, solved, failed);
+                    continue;
+                }
+                inFlight.acquireUninterruptibly();
+                io.submit(() -> {
+                    try {
+                        Outcome outcome = solveOne(file, compute);
+                        (outcome.error() ? failed : solved).incrementAndGet();
+                        emit(outcome.line());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        if (cache != null) {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close solution cache: " + e.getMessage());
+            }
+        }
+        boolean outputFailed = false;
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                System.err.println("Failed to write solutions: " + e.getMessage());
+                outputFailed = true;
+            }
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        System.err.println("Processed " + (solved.get() + failed.get()) + " puzzles (" + solved.get() + " searched, " + failed.get() + " errors) in " + elapsed + " ms");
+        return failed.get() == 0 && !outputFailed ? 0 : 1;
+    }
+
+    private record Outcome(String line, boolean error) {
+        static Outcome failure(Object source, Object detail) {
+            return new Outcome(source + "\terror\t-\t-\t-\t" + detail, true);
+        }
+    }
+
+    // The stream is read on this thread, so parsing stays sequential and at most the in-flight puzzles are held
+    private void solveCollection(Path file, ExecutorService compute, ExecutorService io, Semaphore inFlight,
+                                 AtomicInteger solved, AtomicInteger failed) {
+        try (Stream<PuzzleCollectionReader.Entry> entries = PuzzleCollectionReader.stream(file)) {
+            entries.forEach(entry -> {
+                String label = file + ":" + entry.line();
+                if (!entry.isValid()) {
+                    failed.incrementAndGet();
+                    emit(Outcome.failure(label, entry.error()).line());
+                    return;
+                }
+                inFlight.acquireUninterruptibly();
+                io.submit(() -> {
+                    try {
+                        Outcome outcome = search(label, entry.state(), compute);
+                        (outcome.error() ? failed : solved).incrementAndGet();
+                        emit(outcome.line());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            });
+        } catch (IOException | UncheckedIOException e) {
+            failed.incrementAndGet();
+            emit(Outcome.failure(file, "Failed to read collection: " + e.getMessage()).line());
+        }
+    }
+
+    private Outcome solveOne(Path file, ExecutorService compute) {
+        GameState initialState;
+        try {
+            initialState = new InputReader(file.toString()).createInitialState();
+        } catch (RuntimeException e) {
+            return Outcome.failure(file, e.getMessage());
+        }
+        return search(file.toString(), initialState, compute);
+    }
+
+    private Outcome search(String source, GameState initialState, ExecutorService compute) {
+        Future<Outcome> search = compute.submit(() -> {
+            long begin = System.nanoTime();
+            SearchBudget budget = new SearchBudget(timeLimitMillis, maxNodes, maxFrontier, maxBytes);
+            GameSolver.SolverResult result = GameSolver.solve(initialState, algorithm, heuristic, frontier, cache, budget);
+            long millis = (System.nanoTime() - begin) / 1_000_000;
+            List<GameState> path = result.getPath();
+            // An anytime search that runs out of budget still returns its best path so far
+            String status = result.isAborted() ? (path.isEmpty() ? "aborted" : "suboptimal") : path.isEmpty() ? "unsolvable" : "solved";
+            String moves = path.isEmpty() ? "-" : String.valueOf(path.size() - 1);
+            String detail = result.isAborted() ? result.getStopReason().name().toLowerCase() : "";
+            if (metrics != null) {
+                record(source, status, result);
+            }
+            if (output != null && (!result.isAborted() || !path.isEmpty())) {
+                output.submit(source, initialState, path);
+            }
+            return new Outcome(source + "\t" + status + "\t" + moves + "\t" + result.getNodesExplored() + "\t" + millis + "\t" + detail, false);
+        });
+
+        try {
+            return search.get();
+        } catch (ExecutionException e) {
+            return Outcome.failure(source, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.failure(source, "interrupted");
+        }
+    }
+
+    private void record(String source, String status, GameSolver.SolverResult result) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        labels.put(MetricsExporter.SOURCE_LABEL, source);
+        labels.put("algorithm", algorithm);
+        labels.put("heuristic", heuristic);
+        labels.put("status", status);
+        try {
+            metrics.record(labels, result.getMetrics());
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics for " + source + ": " + e.getMessage());
+        }
+    }
+
+    private void emit(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private List<Path> collectFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> walk = Files.walk(input)) {
+                    walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".txt"))
+                        .sorted()
+                        .forEach(files::add);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+}
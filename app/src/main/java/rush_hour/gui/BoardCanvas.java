@@ -0,0 +1,103 @@
+package rush_hour.gui;
+
+import java.util.Arrays;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+
+/**
+ * Draws the board on a single canvas. The cells of the last drawn state are
+ * kept, and each draw fills the grid straight from the state's offsets and
+ * repaints only the cells whose contents changed, so stepping through a
+ * solution touches a handful of cells and allocates nothing per frame;
+ * piece labels are built once per layout. Cells shrink on large boards so
+ * the whole grid stays on screen.
+ */
+public class BoardCanvas extends Canvas {
+    private static final double MAX_CELL = 50;
+    private static final double MIN_CELL = 12;
+    private static final double MAX_BOARD = 520;
+    private static final double GAP = 2;
+    private static final double RADIUS = 6;
+    private static final int EMPTY = -1;
+    private static final int UNDRAWN = -2;
+    private static final String EMPTY_LABEL = ".";
+
+    private final int cols;
+    private final double cell;
+    private final int[] drawn; // Piece index in each cell, EMPTY, or UNDRAWN before the first draw of a layout
+    private final int[] next;
+    private final Color emptyColor, playerColor, otherColor, borderColor, textColor;
+    private GameLayout layout;
+    private String[] labels;
+
+    public BoardCanvas(int rows, int cols, Color emptyColor, Color playerColor, Color otherColor,
+                       Color borderColor, Color textColor) {
+        this.cols = cols;
+        this.cell = Math.max(MIN_CELL, Math.min(MAX_CELL, (MAX_BOARD + GAP) / Math.max(rows, cols) - GAP));
+        this.drawn = new int[rows * cols];
+        this.next = new int[rows * cols];
+        this.emptyColor = emptyColor;
+        this.playerColor = playerColor;
+        this.otherColor = otherColor;
+        this.borderColor = borderColor;
+        this.textColor = textColor;
+
+        setWidth(cols * (cell + GAP) - GAP);
+        setHeight(rows * (cell + GAP) - GAP);
+        GraphicsContext g = getGraphicsContext2D();
+        g.setFont(Font.font("Monospaced", FontWeight.BOLD, Math.max(8, cell * 0.32)));
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        g.setLineWidth(1);
+    }
+
+    public void draw(GameState state) {
+        if (state.getLayout() != layout) {
+            layout = state.getLayout();
+            labels = new String[layout.getPieceCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = String.valueOf(layout.getId(i));
+            }
+            Arrays.fill(drawn, UNDRAWN);
+        }
+
+        Arrays.fill(next, EMPTY);
+        for (int i = 0; i < layout.getPieceCount(); i++) {
+            int offset = state.getOffset(i);
+            if (offset < 0) continue;
+            for (int k = 0; k < layout.getLength(i); k++) {
+                next[layout.cellIndex(i, offset, k)] = i;
+            }
+        }
+
+        GraphicsContext g = getGraphicsContext2D();
+        for (int index = 0; index < next.length; index++) {
+            if (next[index] != drawn[index]) {
+                paintCell(g, index / cols, index % cols, next[index]);
+                drawn[index] = next[index];
+            }
+        }
+    }
+
+    private void paintCell(GraphicsContext g, int row, int col, int piece) {
+        double x = col * (cell + GAP);
+        double y = row * (cell + GAP);
+        g.clearRect(x, y, cell, cell);
+
+        g.setFill(piece == EMPTY ? emptyColor : layout.getId(piece) == GameLayout.PRIMARY_ID ? playerColor : otherColor);
+        g.fillRoundRect(x, y, cell, cell, RADIUS, RADIUS);
+        g.setStroke(borderColor);
+        g.strokeRoundRect(x + 0.5, y + 0.5, cell - 1, cell - 1, RADIUS, RADIUS);
+
+        g.setFill(textColor);
+        g.fillText(piece == EMPTY ? EMPTY_LABEL : labels[piece], x + cell / 2, y + cell / 2);
+    }
+}
@@ -1,7 +1,6 @@
 package rush_hour.gui;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -19,11 +18,7 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.DialogPane;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.CornerRadii;
-import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
@@ -35,10 +30,10 @@ import javafx.stage.Stage;
 import javafx.util.Duration;
 import rush_hour.io.InputReader;
 import rush_hour.io.OutputHandler;
-import rush_hour.model.GameBoard;
-import rush_hour.model.GamePiece;
+import rush_hour.io.PuzzleFormatException;
 import rush_hour.model.GameState;
 import rush_hour.solver.GameSolver;
+import rush_hour.solver.algorithm.SearchBudget;
 
 public class GameSolverGUI extends Application {
     // Color palette
@@ -54,13 +49,15 @@ public class GameSolverGUI extends Application {
     private File selectedFile;
     private ComboBox<String> algorithmComboBox;
     private ComboBox<String> heuristicComboBox;
-    private GridPane boardDisplay;
+    private ComboBox<String> frontierComboBox;
+    private BoardCanvas boardDisplay;
     private List<GameState> solutionPath;
     private long solveTime;
     private int rows, cols;
     private int nodesExplored = 0;
     private Label loadingLabel;
     private Timeline loadingAnimation;
+    private volatile SearchBudget activeBudget;
     private Timeline solutionAnimation;
     private final AtomicInteger currentStepIndex = new AtomicInteger(0);
     private Slider speedSlider;
@@ -101,7 +98,7 @@ public class GameSolverGUI extends Application {
         algoLabel.setTextFill(TEXT_COLOR);
 
         algorithmComboBox = new ComboBox<>();
-        algorithmComboBox.getItems().addAll("UCS", "Greedy Best First", "A*", "IDA*");
+        algorithmComboBox.getItems().addAll("UCS", "Greedy Best First", "A*", "ARA*", "IDA*", "Fringe", "HDA*", "SMA*", "Beam Search", "Bidirectional BFS", "External BFS", "Retrograde");
         algorithmComboBox.setValue("A*");
         algorithmComboBox.setStyle("-fx-font-family: 'Poppins'; -fx-font-size: 14px;");
         algorithmComboBox.setPrefWidth(200);
@@ -116,24 +113,42 @@ public class GameSolverGUI extends Application {
         heuristicLabel.setTextFill(TEXT_COLOR);
 
         heuristicComboBox = new ComboBox<>();
-        heuristicComboBox.getItems().addAll("Combined", "Distance", "Blocker Count");
+        heuristicComboBox.getItems().addAll("Combined", "Distance", "Blocker Count", "Blocking Chain", "Pattern Database");
         heuristicComboBox.setValue("Combined");
         heuristicComboBox.setStyle("-fx-font-family: 'Poppins'; -fx-font-size: 14px;");
         heuristicComboBox.setPrefWidth(200);
 
+        heuristicBox.getChildren().addAll(heuristicLabel, heuristicComboBox);
+
+        // Open list choice, only used by UCS, Greedy and A*
+        HBox frontierBox = new HBox(15);
+        frontierBox.setAlignment(Pos.CENTER);
+
+        Label frontierLabel = new Label("Open List:");
+        frontierLabel.setFont(Font.font("Poppins", FontWeight.MEDIUM, 16));
+        frontierLabel.setTextFill(TEXT_COLOR);
+
+        frontierComboBox = new ComboBox<>();
+        frontierComboBox.getItems().addAll(GameSolver.FRONTIERS);
+        frontierComboBox.setValue("Binary Heap");
+        frontierComboBox.setStyle("-fx-font-family: 'Poppins'; -fx-font-size: 14px;");
+        frontierComboBox.setPrefWidth(200);
+
+        frontierBox.getChildren().addAll(frontierLabel, frontierComboBox);
+
         algorithmComboBox.setOnAction(e -> {
             String selected = algorithmComboBox.getValue();
-            heuristicBox.setVisible(!"UCS".equals(selected));
+            heuristicBox.setVisible(!"UCS".equals(selected) && !"Bidirectional BFS".equals(selected)
+                && !"External BFS".equals(selected) && !"Retrograde".equals(selected));
+            frontierBox.setVisible("UCS".equals(selected) || "Greedy Best First".equals(selected) || "A*".equals(selected));
         });
 
-        heuristicBox.getChildren().addAll(heuristicLabel, heuristicComboBox);
-
         // File selection button
         Button selectFileButton = new Button("Select Puzzle File");
         styleButton(selectFileButton);
         selectFileButton.setOnAction(e -> openFileChooser());
 
-        root.getChildren().addAll(titleLabel, descLabel, algorithmBox, heuristicBox, selectFileButton);
+        root.getChildren().addAll(titleLabel, descLabel, algorithmBox, heuristicBox, frontierBox, selectFileButton);
 
         Scene scene = new Scene(root);
         primaryStage.setScene(scene);
@@ -187,7 +202,16 @@ public class GameSolverGUI extends Application {
 
         Button cancelButton = new Button("Cancel");
         styleButton(cancelButton);
-        cancelButton.setOnAction(e -> showMainMenu());
+        cancelButton.setOnAction(e -> {
+            SearchBudget budget = activeBudget;
+            if (budget != null) {
+                budget.cancel();
+            }
+            if (loadingAnimation != null) {
+                loadingAnimation.stop();
+            }
+            showMainMenu();
+        });
 
         StackPane bottomPane = new StackPane(cancelButton);
         bottomPane.setAlignment(Pos.CENTER);
@@ -226,19 +250,17 @@ public class GameSolverGUI extends Application {
 
             String selectedAlgorithm = algorithmComboBox.getValue();
             String selectedHeuristic = heuristicComboBox.getValue();
+            String selectedFrontier = frontierComboBox.getValue();
 
-            List<GamePiece> pieces = new ArrayList<>();
-            for (int i = 0; i < reader.ids.length; i++) {
-                pieces.add(new GamePiece(reader.ids[i], reader.puzzlePieces.get(i)));
-            }
-
-            GameBoard initialBoard = new GameBoard(reader.A, reader.B, reader.goalPlacement, reader.goalIndex);
-            initialBoard.placePieces(pieces);
-
-            GameState initialState = new GameState(initialBoard, pieces, null, "Start");
+            GameState initialState = reader.createInitialState();
 
+            SearchBudget budget = SearchBudget.unlimited();
+            activeBudget = budget;
             long startTime = System.currentTimeMillis();
-            GameSolver.SolverResult result = GameSolver.solve(initialState, selectedAlgorithm, selectedHeuristic);
+            GameSolver.SolverResult result = GameSolver.solve(initialState, selectedAlgorithm, selectedHeuristic, selectedFrontier, budget);
+            if (result.getStopReason() == SearchBudget.StopReason.CANCELLED) {
+                return; // Cancelled from the loading screen, which has already gone back to the menu
+            }
             solutionPath = result.getPath();
             long endTime = System.currentTimeMillis();
             solveTime = endTime - startTime;
@@ -246,20 +268,24 @@ public class GameSolverGUI extends Application {
             nodesExplored = result.getNodesExplored();
 
             Platform.runLater(() -> {
-                if (solutionPath.isEmpty()) {
-                    showNoSolutionScreen();
+                if (solutionPath.isEmpty() && result.isAborted()) {
+                    // Memory-bounded searches can give up even without a budget
+                    String reason = result.getStopReason().name().toLowerCase().replace('_', ' ');
+                    showNoSolutionScreen("Search Gave Up!", "The solver gave up: " + reason + ".");
+                } else if (solutionPath.isEmpty()) {
+                    showNoSolutionScreen("No Solution Found!", "This puzzle has no valid solution.");
                 } else {
                     showSolutionScreen();
                 }
             });
-        } catch (Exception e) {
+        } catch (PuzzleFormatException e) {
+            Platform.runLater(() -> showErrorDialog("Invalid puzzle: " + e.getMessage()));
+        } catch (RuntimeException e) {
             Platform.runLater(() -> showErrorDialog("Exception: " + e.getMessage()));
-        } catch (Error e) {
-            Platform.runLater(() -> showErrorDialog("Error: " + e.getMessage()));
         }
     }
 
-    private void showNoSolutionScreen() {
+    private void showNoSolutionScreen(String title, String explanation) {
         if (loadingAnimation != null) {
             loadingAnimation.stop();
         }
@@ -271,11 +297,11 @@ public class GameSolverGUI extends Application {
         VBox centerBox = new VBox(20);
         centerBox.setAlignment(Pos.CENTER);
 
-        Label resultLabel = new Label("No Solution Found!");
+        Label resultLabel = new Label(title);
         resultLabel.setFont(Font.font("Poppins", FontWeight.BOLD, 24));
         resultLabel.setTextFill(PRIMARY_COLOR);
 
-        Label explainLabel = new Label("This puzzle has no valid solution.");
+        Label explainLabel = new Label(explanation);
         explainLabel.setFont(Font.font("Poppins", FontWeight.MEDIUM, 16));
         explainLabel.setTextFill(TEXT_COLOR);
 
@@ -351,10 +377,7 @@ public class GameSolverGUI extends Application {
             "-fx-border-radius: 5;"
         );
 
-        boardDisplay = new GridPane();
-        boardDisplay.setAlignment(Pos.CENTER);
-        boardDisplay.setHgap(2);
-        boardDisplay.setVgap(2);
+        boardDisplay = new BoardCanvas(rows, cols, EMPTY_CELL, PLAYER_CELL, OTHER_CELL, PRIMARY_LIGHT, TEXT_COLOR);
 
         currentStepIndex.set(0);
         updateBoard(solutionPath.get(0));
@@ -458,11 +481,16 @@ public class GameSolverGUI extends Application {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Save Solution Path");
             fileChooser.setInitialFileName("solution.txt");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+            FileChooser.ExtensionFilter compactFilter = new FileChooser.ExtensionFilter("Compact Solution", "*.rhs");
+            fileChooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("Text Files", "*.txt"), compactFilter);
 
-            File selectedFile = fileChooser.showSaveDialog(primaryStage);
-            if (selectedFile != null) {
-                OutputHandler.saveSolutionPath(solutionPath, selectedFile.getAbsolutePath());
+            File saveFile = fileChooser.showSaveDialog(primaryStage);
+            if (saveFile != null) {
+                if (fileChooser.getSelectedExtensionFilter() == compactFilter || saveFile.getName().endsWith(".rhs")) {
+                    OutputHandler.saveCompactSolution(solutionPath, selectedFile.getName(), saveFile.getAbsolutePath());
+                } else {
+                    OutputHandler.saveSolutionPath(solutionPath, saveFile.getAbsolutePath());
+                }
             }
         });
 
@@ -529,35 +557,7 @@ public class GameSolverGUI extends Application {
     }
 
     private void updateBoard(GameState state) {
-        boardDisplay.getChildren().clear();
-
-        char[][] board = state.getBoard().getGridCopy();
-
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                char cell = board[row][col];
-
-                Label cellLabel = new Label(String.valueOf(cell));
-                cellLabel.setAlignment(Pos.CENTER);
-                cellLabel.setPrefSize(50, 50);
-                cellLabel.setFont(Font.font("Monospaced", FontWeight.BOLD, 16));
-                cellLabel.setTextFill(TEXT_COLOR);
-
-                StackPane cellPane = new StackPane(cellLabel);
-                cellPane.setStyle(
-                    "-fx-border-color: " + toHexString(PRIMARY_LIGHT) + ";" +
-                    "-fx-border-width: 1;" +
-                    "-fx-border-radius: 3;"
-                );
-
-                switch (cell) {
-                    case '.' -> cellPane.setBackground(new Background(new BackgroundFill(EMPTY_CELL, new CornerRadii(3), Insets.EMPTY)));
-                    case 'P' -> cellPane.setBackground(new Background(new BackgroundFill(PLAYER_CELL, new CornerRadii(3), Insets.EMPTY)));
-                    default -> cellPane.setBackground(new Background(new BackgroundFill(OTHER_CELL, new CornerRadii(3), Insets.EMPTY)));
-                }
-                boardDisplay.add(cellPane, col, row);
-            }
-        }
+        boardDisplay.draw(state);
     }
 
     private void showErrorDialog(String message) {
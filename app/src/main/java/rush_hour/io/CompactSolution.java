@@ -0,0 +1,214 @@
+package rush_hour.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rush_hour.model.GameEnums;
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+
+/**
+ * A solution stored as its initial board plus one two-character token per
+ * slide: the piece id and U, D, L or R. The final exit of the primary piece
+ * is implied. Written as text, a record is the puzzle in the input file
+ * format between a "= label" line and a "moves" line, so any record can be
+ * cut out of a solutions file and loaded as a puzzle:
+ *
+ *   = test/input/test-case1.txt
+ *   6 6
+ *   ...board rows...
+ *   moves 10 CU DD ...
+ *
+ * An unsolvable puzzle is written as "moves -". Boards along the path are
+ * rebuilt on demand by replaying the moves.
+ */
+public final class CompactSolution {
+    static final String LABEL_PREFIX = "= ";
+    static final String MOVES_PREFIX = "moves ";
+
+    private final String label;
+    private final GameState initialState;
+    private final String moves; // Two chars per slide, or null when unsolvable
+
+    CompactSolution(String label, GameState initialState, String moves) {
+        this.label = label;
+        this.initialState = initialState;
+        this.moves = moves;
+    }
+
+    // An empty path records the puzzle as unsolvable
+    public static CompactSolution of(String label, GameState initialState, List<GameState> path) {
+        if (path.isEmpty()) {
+            return new CompactSolution(label, initialState, null);
+        }
+        GameLayout layout = initialState.getLayout();
+        StringBuilder moves = new StringBuilder(2 * path.size());
+        for (int step = 1; step < path.size(); step++) {
+            GameState from = path.get(step - 1), to = path.get(step);
+            if (to.getOffset(layout.getPrimaryIndex()) < 0) break; // The implied exit move
+            for (int i = 0; i < layout.getPieceCount(); i++) {
+                int delta = to.getOffset(i) - from.getOffset(i);
+                if (delta != 0) {
+                    moves.append(layout.getId(i)).append(direction(layout, i, delta));
+                    break;
+                }
+            }
+        }
+        return new CompactSolution(label, initialState, moves.toString());
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public GameState getInitialState() {
+        return initialState;
+    }
+
+    public boolean isSolvable() {
+        return moves != null;
+    }
+
+    // Slides before the exit move
+    public int getMoveCount() {
+        return moves == null ? 0 : moves.length() / 2;
+    }
+
+    // Board after the given number of slides
+    public GameState stateAt(int step) {
+        if (step < 0 || step > getMoveCount()) {
+            throw new IllegalArgumentException("Step " + step + " is outside 0.." + getMoveCount());
+        }
+        Map<Character, Integer> pieceIndex = pieceIndex(initialState.getLayout());
+        GameState current = initialState;
+        for (int k = 0; k < step; k++) {
+            current = apply(current, pieceIndex, k);
+        }
+        return current;
+    }
+
+    // Full path in the form the solvers return it, including the exit move; empty when unsolvable
+    public List<GameState> toPath() {
+        List<GameState> path = new ArrayList<>();
+        if (moves == null) return path;
+
+        Map<Character, Integer> pieceIndex = pieceIndex(initialState.getLayout());
+        GameState current = initialState;
+        path.add(current);
+        for (int k = 0; k < getMoveCount(); k++) {
+            current = apply(current, pieceIndex, k);
+            path.add(current);
+        }
+        if (!current.isGoal()) {
+            throw new IllegalStateException("Moves of " + label + " do not reach the goal");
+        }
+        path.add(current.lastMove());
+        return path;
+    }
+
+    public void writeTo(Appendable out) throws IOException {
+        out.append(LABEL_PREFIX).append(label).append('\n');
+        appendPuzzle(out, initialState);
+        out.append(MOVES_PREFIX);
+        if (moves == null) {
+            out.append('-');
+        } else {
+            out.append(String.valueOf(getMoveCount()));
+            for (int k = 0; k < moves.length(); k += 2) {
+                out.append(' ').append(moves, k, k + 2);
+            }
+        }
+        out.append('\n');
+    }
+
+    // Parses the tokens after "moves "; null for an unsolvable record
+    static String parseMoves(String text) {
+        String[] tokens = text.trim().split(" +");
+        if (tokens.length == 1 && tokens[0].equals("-")) return null;
+
+        int count;
+        try {
+            count = Integer.parseInt(tokens[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid move count: " + tokens[0]);
+        }
+        if (count != tokens.length - 1) {
+            throw new IllegalArgumentException("Expected " + count + " moves but found " + (tokens.length - 1));
+        }
+        StringBuilder moves = new StringBuilder(2 * count);
+        for (int k = 1; k < tokens.length; k++) {
+            if (tokens[k].length() != 2 || "UDLR".indexOf(tokens[k].charAt(1)) < 0) {
+                throw new IllegalArgumentException("Invalid move: " + tokens[k]);
+            }
+            moves.append(tokens[k]);
+        }
+        return moves.toString();
+    }
+
+    private GameState apply(GameState current, Map<Character, Integer> pieceIndex, int k) {
+        char id = moves.charAt(2 * k);
+        char dir = moves.charAt(2 * k + 1);
+        Integer piece = pieceIndex.get(id);
+        GameLayout layout = current.getLayout();
+        if (piece == null || layout.isHorizontal(piece) != (dir == 'L' || dir == 'R')) {
+            throw new IllegalStateException("Move " + (k + 1) + " of " + label + " is invalid: " + id + dir);
+        }
+        int delta = dir == 'R' || dir == 'D' ? 1 : -1;
+        if (!current.canMove(piece, delta)) {
+            throw new IllegalStateException("Move " + (k + 1) + " of " + label + " is blocked: " + id + dir);
+        }
+        return current.move(piece, delta);
+    }
+
+    private static char direction(GameLayout layout, int piece, int delta) {
+        if (layout.isHorizontal(piece)) return delta > 0 ? 'R' : 'L';
+        return delta > 0 ? 'D' : 'U';
+    }
+
+    private static Map<Character, Integer> pieceIndex(GameLayout layout) {
+        Map<Character, Integer> index = new HashMap<>();
+        for (int i = 0; i < layout.getPieceCount(); i++) {
+            index.put(layout.getId(i), i);
+        }
+        return index;
+    }
+
+    // The board in the input file format, with the exit marked by K outside the grid
+    private static void appendPuzzle(Appendable out, GameState state) throws IOException {
+        GameLayout layout = state.getLayout();
+        int rows = layout.getRows(), cols = layout.getCols();
+        GameEnums.GoalPlacement goal = layout.getGoalPlacement();
+        int goalIndex = layout.getGoalIndex();
+        char[][] grid = state.getBoard().getGridCopy();
+
+        out.append(String.valueOf(rows)).append(' ').append(String.valueOf(cols)).append('\n');
+        out.append(String.valueOf(layout.getPieceCount() - 1)).append('\n');
+        if (goal == GameEnums.GoalPlacement.TOP) {
+            out.append(exitRow(cols, goalIndex)).append('\n');
+        }
+        for (int row = 0; row < rows; row++) {
+            if (goal == GameEnums.GoalPlacement.LEFT) {
+                out.append(row == goalIndex ? 'K' : ' ');
+            }
+            out.append(new String(grid[row]));
+            if (goal == GameEnums.GoalPlacement.RIGHT && row == goalIndex) {
+                out.append('K');
+            }
+            out.append('\n');
+        }
+        if (goal == GameEnums.GoalPlacement.BOTTOM) {
+            out.append(exitRow(cols, goalIndex)).append('\n');
+        }
+    }
+
+    private static String exitRow(int cols, int goalIndex) {
+        char[] row = new char[cols];
+        Arrays.fill(row, ' ');
+        row[goalIndex] = 'K';
+        return new String(row);
+    }
+}
@@ -3,12 +3,17 @@ package rush_hour.io;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import rush_hour.model.GameBoard;
 import rush_hour.model.GameEnums;
+import rush_hour.model.GamePiece;
+import rush_hour.model.GameState;
 
 public class InputReader {
     public int A, B, N;
@@ -30,179 +35,210 @@ public class InputReader {
         readInputFile(fileName);
     }
 
+    // Parses a puzzle whose lines were already read, e.g. one block of a collection file
+    public InputReader(List<String> lines) {
+        puzzlePieces = new ArrayList<>();
+        rawBoardLines = new ArrayList<>();
+        parse(lines.iterator());
+    }
+
+    public GameState createInitialState() {
+        List<GamePiece> pieces = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            pieces.add(new GamePiece(ids[i], puzzlePieces.get(i)));
+        }
+
+        GameBoard initialBoard = new GameBoard(A, B, goalPlacement, goalIndex);
+        initialBoard.placePieces(pieces);
+
+        return new GameState(initialBoard, pieces, null, "Start");
+    }
+
     private void readInputFile(String fileName) {
         try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String[] firstLine = br.readLine().split(" ");
-            if (firstLine.length != 2) {
-                throw new Error("Invalid first line: Expected format 'A B'");
-            }
+            parse(br.lines().iterator());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading file: " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new UncheckedIOException("Error reading file: " + e.getMessage(), e.getCause());
+        }
+    }
 
-            // Read A and B (Rows and Columns)
-            A = parsePositiveInt(firstLine[0], "Invalid row count (A)");
-            B = parsePositiveInt(firstLine[1], "Invalid column count (B)");
-
-            // Read N (Number of Pieces)
-            String pLine = br.readLine();
-            if (pLine == null) throw new Error("Missing piece count (N)");
-            N = parsePositiveInt(pLine.trim(), "Invalid piece count (N)");
-            
-            // Scan for goal position while get the raw board lines
-            for (int i = 0; i <= A; i++) {
-                String line = br.readLine();
-                if (line == null) {
-                    if (!isGoalFound && i != A) {
-                        throw new Error("Unexpected end of file when reading board.");
-                    }
-                    break;
-                } 
+    private static String nextLine(Iterator<String> lines) {
+        return lines.hasNext() ? lines.next() : null;
+    }
+
+    private void parse(Iterator<String> lines) {
+        String header = nextLine(lines);
+        if (header == null) throw new PuzzleFormatException("Empty puzzle: expected a first line 'A B'");
+        String[] firstLine = header.split(" ");
+        if (firstLine.length != 2) {
+            throw new PuzzleFormatException("Invalid first line: Expected format 'A B'");
+        }
 
-                if (line.length() < B || line.length() > B + 1) {
-                    throw new Error("Invalid line length at row " + i + ": must be " + B + " or " + (B + 1) + " characters.");
+        // Read A and B (Rows and Columns)
+        A = parsePositiveInt(firstLine[0], "Invalid row count (A)");
+        B = parsePositiveInt(firstLine[1], "Invalid column count (B)");
+
+        // Read N (Number of Pieces)
+        String pLine = nextLine(lines);
+        if (pLine == null) throw new PuzzleFormatException("Missing piece count (N)");
+        N = parsePositiveInt(pLine.trim(), "Invalid piece count (N)");
+        
+        // Scan for goal position while get the raw board lines
+        for (int i = 0; i <= A; i++) {
+            String line = nextLine(lines);
+            if (line == null) {
+                if (!isGoalFound && i != A) {
+                    throw new PuzzleFormatException("Unexpected end of file when reading board.");
                 }
+                break;
+            } 
+
+            if (line.length() < B || line.length() > B + 1) {
+                throw new PuzzleFormatException("Invalid line length at row " + i + ": must be " + B + " or " + (B + 1) + " characters.");
+            }
+
+            rawBoardLines.add(line);
 
-                rawBoardLines.add(line);
-
-                for (int j = 0; j < line.length(); j++) {
-                    char c = line.charAt(j);
-                    if (c == goalPiece) {
-                        if (isGoalFound) {
-                            throw new Error("Multiple goal positions ('K') found.");
-                        }
-
-                        if (i == 0 && j < B) { // TOP border
-                            goalPlacement = GameEnums.GoalPlacement.TOP;
-                            goalIndex = j;
-                            isGoalFound = true;
-                        } 
-                        else if (j == 0 && i < A) { // LEFT border
-                            goalPlacement = GameEnums.GoalPlacement.LEFT;
-                            goalIndex = i;
-                            isGoalFound = true;
-                        }
-                        else if (j == B && i < A) { // RIGHT border
-                            goalPlacement = GameEnums.GoalPlacement.RIGHT;
-                            goalIndex = i;
-                            isGoalFound = true;
-                        }
-                        else if (i == A && j < B) { // BOTTOM border
-                            goalPlacement = GameEnums.GoalPlacement.BOTTOM;
-                            goalIndex = j;
-                            isGoalFound = true;
-                        }
-                        else {
-                            throw new Error("Goal piece ('K') must be on the border.");
-                        }
+            for (int j = 0; j < line.length(); j++) {
+                char c = line.charAt(j);
+                if (c == goalPiece) {
+                    if (isGoalFound) {
+                        throw new PuzzleFormatException("Multiple goal positions ('K') found.");
+                    }
+
+                    if (i == 0 && j < B) { // TOP border
+                        goalPlacement = GameEnums.GoalPlacement.TOP;
+                        goalIndex = j;
+                        isGoalFound = true;
+                    } 
+                    else if (j == 0 && i < A) { // LEFT border
+                        goalPlacement = GameEnums.GoalPlacement.LEFT;
+                        goalIndex = i;
+                        isGoalFound = true;
+                    }
+                    else if (j == B && i < A) { // RIGHT border
+                        goalPlacement = GameEnums.GoalPlacement.RIGHT;
+                        goalIndex = i;
+                        isGoalFound = true;
+                    }
+                    else if (i == A && j < B) { // BOTTOM border
+                        goalPlacement = GameEnums.GoalPlacement.BOTTOM;
+                        goalIndex = j;
+                        isGoalFound = true;
+                    }
+                    else {
+                        throw new PuzzleFormatException("Goal piece ('K') must be on the border.");
                     }
                 }
             }
+        }
 
-            if (goalPlacement == GameEnums.GoalPlacement.TOP && rawBoardLines.size() != A + 1) {
-                goalPlacement = GameEnums.GoalPlacement.LEFT;
-            }
+        if (goalPlacement == GameEnums.GoalPlacement.TOP && rawBoardLines.size() != A + 1) {
+            goalPlacement = GameEnums.GoalPlacement.LEFT;
+        }
 
-            if (!isGoalFound) {
-                throw new Error("No goal position ('K') found.");
-            }
+        if (!isGoalFound) {
+            throw new PuzzleFormatException("No goal position ('K') found.");
+        }
 
-            switch (goalPlacement) {
-                case LEFT:
-                    startA = 0;
-                    endA = A;
-                    startB = 1;
-                    endB = B + 1;
-                    break;
-                case TOP:
-                    startA = 1;
-                    endA = A + 1;
-                    startB = 0;
-                    endB = B;
-                    break;
-                case RIGHT:
-                case BOTTOM:
-                default:
-                    startA = 0;
-                    endA = A;
-                    startB = 0;
-                    endB = B;
-                    break;
-            }
-            
-            board = new char[A][B];
-            for (int i = 0; i < A; i++) {
-                for (int j = 0; j < B; j++) {
-                    board[i][j] = '.';
-                }
+        switch (goalPlacement) {
+            case LEFT:
+                startA = 0;
+                endA = A;
+                startB = 1;
+                endB = B + 1;
+                break;
+            case TOP:
+                startA = 1;
+                endA = A + 1;
+                startB = 0;
+                endB = B;
+                break;
+            case RIGHT:
+            case BOTTOM:
+            default:
+                startA = 0;
+                endA = A;
+                startB = 0;
+                endB = B;
+                break;
+        }
+        
+        board = new char[A][B];
+        for (int i = 0; i < A; i++) {
+            for (int j = 0; j < B; j++) {
+                board[i][j] = '.';
             }
+        }
 
-            Map<Character, List<int[]>> pieceMap = new LinkedHashMap<>();
-
-            for (int i = startA; i < endA; i++) {
-                String line = rawBoardLines.get(i);
-                for (int j = startB; j < endB && j < line.length(); j++) {
-                    char c = line.charAt(j);
-
-                    if (c == '.' || c == goalPiece) continue;
-
-                    int boardRow = i;
-                    int boardCol = j;
-
-                    switch (goalPlacement) {
-                        case LEFT:
-                            boardCol = j - 1;
-                            break;
-                        case TOP:
-                            boardRow = i - 1;
-                            break;
-                        case RIGHT:
-                        case BOTTOM:
-                        default:
-                            break;
-                    }
+        Map<Character, List<int[]>> pieceMap = new LinkedHashMap<>();
+
+        for (int i = startA; i < endA; i++) {
+            String line = rawBoardLines.get(i);
+            for (int j = startB; j < endB && j < line.length(); j++) {
+                char c = line.charAt(j);
 
-                    if (boardRow < 0 || boardRow >= A || boardCol < 0 || boardCol >= B) continue;
+                if (c == '.' || c == goalPiece) continue;
 
-                    board[boardRow][boardCol] = c;
+                int boardRow = i;
+                int boardCol = j;
 
-                    pieceMap.putIfAbsent(c, new ArrayList<>());
-                    pieceMap.get(c).add(new int[]{boardCol, boardRow});
+                switch (goalPlacement) {
+                    case LEFT:
+                        boardCol = j - 1;
+                        break;
+                    case TOP:
+                        boardRow = i - 1;
+                        break;
+                    case RIGHT:
+                    case BOTTOM:
+                    default:
+                        break;
                 }
-            }
 
-            ids = new char[pieceMap.size()];
-            puzzlePieces = new ArrayList<>();
+                if (boardRow < 0 || boardRow >= A || boardCol < 0 || boardCol >= B) continue;
 
-            int idx = 0;
-            for (Map.Entry<Character, List<int[]>> entry : pieceMap.entrySet()) {
-                ids[idx] = entry.getKey();
-                puzzlePieces.add(entry.getValue());
-                idx++;
-            }
+                board[boardRow][boardCol] = c;
 
-            boolean foundPrimary = false;
-            for (char id : ids) {
-                if (id == primaryPiece) {
-                    foundPrimary = true;
-                    break;
-                }
+                pieceMap.putIfAbsent(c, new ArrayList<>());
+                pieceMap.get(c).add(new int[]{boardCol, boardRow});
             }
-            if (!foundPrimary && ids.length > 0) {
-                throw new Error("No Primary Piece ('P') detected!");
+        }
+
+        ids = new char[pieceMap.size()];
+        puzzlePieces = new ArrayList<>();
+
+        int idx = 0;
+        for (Map.Entry<Character, List<int[]>> entry : pieceMap.entrySet()) {
+            ids[idx] = entry.getKey();
+            puzzlePieces.add(entry.getValue());
+            idx++;
+        }
+
+        boolean foundPrimary = false;
+        for (char id : ids) {
+            if (id == primaryPiece) {
+                foundPrimary = true;
+                break;
             }
-            checkPrimaryPieceAlignment();
-        } catch (IOException e) {
-            throw new Error("Error reading file: " + e.getMessage());
         }
+        if (!foundPrimary && ids.length > 0) {
+            throw new PuzzleFormatException("No Primary Piece ('P') detected!");
+        }
+        checkPrimaryPieceAlignment();
     }
 
     private int parsePositiveInt(String value, String errorMessage) {
         try {
             int number = Integer.parseInt(value);
             if (number <= 0) {
-                throw new Error(errorMessage + " must be a positive integer.");
+                throw new PuzzleFormatException(errorMessage + " must be a positive integer.");
             }
             return number;
         } catch (NumberFormatException e) {
-            throw new Error(errorMessage + " is not a valid integer.");
+            throw new PuzzleFormatException(errorMessage + " is not a valid integer.");
         }
     }
 
@@ -218,7 +254,7 @@ public class InputReader {
         }
 
         if (primaryCoords == null || primaryCoords.isEmpty()) {
-            throw new Error("Primary piece '" + primaryPiece + "' has no coordinates");
+            throw new PuzzleFormatException("Primary piece '" + primaryPiece + "' has no coordinates");
         }
 
         boolean isAligned = true;
@@ -242,7 +278,7 @@ public class InputReader {
         }
 
         if (!isAligned) {
-            throw new Error("Primary piece '" + primaryPiece + "' is not aligned with goal position");
+            throw new PuzzleFormatException("Primary piece '" + primaryPiece + "' is not aligned with goal position");
         }
     }
 }
\ No newline at end of file
@@ -19,4 +19,14 @@ public class OutputHandler {
             System.err.println("Failed to save solution path: " + e.getMessage());
         }
     }
+
+    // Initial board plus the move list, readable with SolutionReader
+    public static void saveCompactSolution(List<GameState> path, String label, String fileName) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+            CompactSolution.of(label, path.get(0), path).writeTo(writer);
+            System.out.println("Solution successfully written to: " + fileName);
+        } catch (IOException e) {
+            System.err.println("Failed to save solution: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package rush_hour.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import rush_hour.model.GameState;
+
+/**
+ * Reads files holding many puzzles back to back, each in the single-puzzle
+ * format ("A B", N, then the board rows), optionally separated by blank
+ * lines. The file is memory-mapped in large windows and split into lines
+ * without a Reader; puzzles are parsed one at a time as the stream is
+ * consumed, so a collection of any size needs memory for one puzzle only.
+ *
+ * A puzzle that fails to parse becomes an entry carrying the error, and
+ * reading resumes at the next header line, so one bad puzzle never hides
+ * the rest of the file. Board rows are never two numbers separated by a
+ * space, which is what makes a header recognizable.
+ */
+public class PuzzleCollectionReader {
+    private static final long WINDOW_BYTES = 1L << 30;
+    private static final int MAX_ROWS = 1 << 20;
+
+    // One puzzle of a collection: its position in the file, and either a state or the parse error
+    public record Entry(int index, long line, GameState state, String error) {
+        public boolean isValid() {
+            return state != null;
+        }
+    }
+
+    private PuzzleCollectionReader() {}
+
+    // Entries in file order; closing the stream releases the file
+    public static Stream<Entry> stream(Path file) throws IOException {
+        MappedLines lines = new MappedLines(FileChannel.open(file, StandardOpenOption.READ));
+        Spliterator<Entry> entries = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int index = 0;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Entry> action) {
+                Entry entry = next(lines, index);
+                if (entry == null) return false;
+                index++;
+                action.accept(entry);
+                return true;
+            }
+        };
+        return StreamSupport.stream(entries, false).onClose(lines::close);
+    }
+
+    public static List<Entry> readAll(Path file) throws IOException {
+        try (Stream<Entry> entries = stream(file)) {
+            return entries.toList();
+        }
+    }
+
+    private static Entry next(MappedLines lines, int index) {
+        String header = lines.next();
+        while (header != null && header.isBlank()) {
+            header = lines.next();
+        }
+        if (header == null) return null;
+        long lineNumber = lines.lineNumber();
+
+        if (!isHeader(header)) {
+            skipToHeader(lines);
+            return new Entry(index, lineNumber, null, "Expected a header line 'A B' but found: " + header);
+        }
+
+        // Header, piece count, A rows and an optional extra row for a top or bottom exit
+        int rows = rowCount(header);
+        List<String> block = new ArrayList<>();
+        block.add(header);
+        String line;
+        while (block.size() < rows + 3 && (line = lines.peek()) != null && !isHeader(line)
+                && !(block.size() >= rows + 2 && line.isBlank())) {
+            block.add(lines.next());
+        }
+
+        try {
+            return new Entry(index, lineNumber, new InputReader(block).createInitialState(), null);
+        } catch (RuntimeException e) {
+            String message = e.getMessage() == null ? e.toString() : e.getMessage();
+            return new Entry(index, lineNumber, null, message);
+        }
+    }
+
+    // Absurd row counts are capped; the parser rejects the puzzle once its rows run out
+    private static int rowCount(String header) {
+        int rows = 0;
+        for (int i = 0; header.charAt(i) != ' ' && rows < MAX_ROWS; i++) {
+            rows = rows * 10 + (header.charAt(i) - '0');
+        }
+        return Math.min(rows, MAX_ROWS);
+    }
+
+    private static void skipToHeader(MappedLines lines) {
+        String line;
+        while ((line = lines.peek()) != null && !isHeader(line)) {
+            lines.next();
+        }
+    }
+
+    // Two positive integers separated by one space, as the first line of every puzzle
+    static boolean isHeader(String line) {
+        int space = line.indexOf(' ');
+        if (space <= 0 || space == line.length() - 1) return false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (i != space && (c < '0' || c > '9')) return false;
+        }
+        return true;
+    }
+
+    // Lines of a file read through sliding memory-mapped windows, with one line of lookahead
+    private static final class MappedLines {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private byte[] scratch = new byte[256];
+        private String peeked;
+        private long lineNumber;
+
+        MappedLines(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        String peek() {
+            if (peeked == null) {
+                peeked = read();
+            }
+            return peeked;
+        }
+
+        String next() {
+            String line = peek();
+            peeked = null;
+            if (line != null) lineNumber++;
+            return line;
+        }
+
+        long lineNumber() {
+            return lineNumber;
+        }
+
+        private String read() {
+            long position = windowStart + window.position();
+            if (position >= size) return null;
+
+            int length = 0;
+            while (true) {
+                if (!window.hasRemaining()) {
+                    if (windowStart + window.limit() >= size) break;
+                    map(windowStart + window.limit());
+                }
+                byte b = window.get();
+                if (b == '\n') break;
+                if (length == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, length * 2);
+                }
+                scratch[length++] = b;
+            }
+            if (length > 0 && scratch[length - 1] == '\r') length--;
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void map(long start) {
+            try {
+                windowStart = start;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, size - start));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
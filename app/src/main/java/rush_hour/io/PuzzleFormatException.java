@@ -0,0 +1,11 @@
+package rush_hour.io;
+
+/**
+ * A puzzle that does not follow the input format. The message says what was
+ * wrong and is meant to be shown to the user as is.
+ */
+public class PuzzleFormatException extends IllegalArgumentException {
+    public PuzzleFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+package rush_hour.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads files written by SolutionWriter back into CompactSolutions, lazily
+ * and in file order. Only the initial board of each record is parsed; the
+ * boards along a solution are rebuilt when asked for.
+ */
+public class SolutionReader {
+    private SolutionReader() {}
+
+    // Closing the stream closes the file
+    public static Stream<CompactSolution> stream(Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        Spliterator<CompactSolution> records = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private long lineNumber = 0;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super CompactSolution> action) {
+                try {
+                    String line;
+                    do {
+                        line = reader.readLine();
+                        lineNumber++;
+                    } while (line != null && line.isBlank());
+                    if (line == null) return false;
+                    if (!line.startsWith(CompactSolution.LABEL_PREFIX)) {
+                        throw new IllegalArgumentException("Line " + lineNumber + ": expected '" + CompactSolution.LABEL_PREFIX + "label'");
+                    }
+                    String label = line.substring(CompactSolution.LABEL_PREFIX.length());
+                    long start = lineNumber;
+
+                    List<String> puzzle = new ArrayList<>();
+                    while ((line = reader.readLine()) != null && !line.startsWith(CompactSolution.MOVES_PREFIX)) {
+                        lineNumber++;
+                        puzzle.add(line);
+                    }
+                    lineNumber++;
+                    if (line == null) {
+                        throw new IllegalArgumentException("Record at line " + start + " has no moves line");
+                    }
+                    CompactSolution solution;
+                    try {
+                        String moves = CompactSolution.parseMoves(line.substring(CompactSolution.MOVES_PREFIX.length()));
+                        solution = new CompactSolution(label, new InputReader(puzzle).createInitialState(), moves);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Record at line " + start + ": " + e.getMessage());
+                    }
+                    action.accept(solution);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public static List<CompactSolution> readAll(Path file) throws IOException {
+        try (Stream<CompactSolution> records = stream(file)) {
+            return records.toList();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package rush_hour.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import rush_hour.model.GameState;
+
+/**
+ * Streams compact solutions to a file from a background thread. Callers
+ * only encode the move list and enqueue it; formatting and disk writes
+ * happen on the writer thread. Callers wait only when QUEUE_CAPACITY
+ * solutions are already pending, which bounds memory if the disk falls
+ * behind. Records appear in the order they were submitted.
+ */
+public class SolutionWriter implements Closeable {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final CompactSolution END = new CompactSolution(null, null, null);
+
+    private final BlockingQueue<CompactSolution> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BufferedWriter writer;
+    private final Thread thread;
+    private volatile IOException failure;
+    private volatile boolean closed = false;
+
+    public SolutionWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.thread = new Thread(this::drain, "solution-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void submit(String label, GameState initialState, List<GameState> path) {
+        submit(CompactSolution.of(label, initialState, path));
+    }
+
+    public void submit(CompactSolution solution) {
+        if (closed) {
+            throw new IllegalStateException("Solution writer is closed");
+        }
+        if (failure != null) return; // Reported by close()
+        try {
+            queue.put(solution);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits for every submitted record to reach the file
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(END);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                CompactSolution solution = queue.take();
+                if (solution == END) break;
+                if (failure != null) continue;
+                solution.writeTo(writer);
+                // Flush whenever the queue runs dry so readers see complete records promptly
+                if (queue.isEmpty()) writer.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+            queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
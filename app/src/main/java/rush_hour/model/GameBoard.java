@@ -70,6 +70,14 @@ public class GameBoard {
         return copy;
     }
 
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
     public int getGoalIndex() {
         return goalIndex;
     }
@@ -0,0 +1,265 @@
+package rush_hour.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable description of a puzzle shared by every state searched from it:
+ * board size, goal, and for each piece its id, orientation, lane and length.
+ * A state only has to store one offset per piece along its lane.
+ */
+public final class GameLayout {
+    public static final char PRIMARY_ID = 'P';
+
+    private final int rows, cols;
+    private final GameEnums.GoalPlacement goalPlacement;
+    private final int goalIndex;
+    private final int words;
+    private final char[] ids;
+    private final boolean[] horizontal;
+    private final int[] lanes;
+    private final int[] lengths;
+    private final int[][] laneCells;
+    private final int primaryIndex;
+    private final int keyBits;
+    private final int piecesPerWord;
+    private final int keyWords;
+
+    public GameLayout(int rows, int cols, GameEnums.GoalPlacement goalPlacement, int goalIndex, List<GamePiece> pieces) {
+        if (rows > Byte.MAX_VALUE || cols > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Board dimensions must not exceed " + Byte.MAX_VALUE);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.goalPlacement = goalPlacement;
+        this.goalIndex = goalIndex;
+        this.words = (rows * cols + 63) >>> 6;
+
+        int n = pieces.size();
+        this.ids = new char[n];
+        this.horizontal = new boolean[n];
+        this.lanes = new int[n];
+        this.lengths = new int[n];
+
+        int primary = -1;
+        for (int i = 0; i < n; i++) {
+            GamePiece piece = pieces.get(i);
+            int[] first = piece.getPositions().get(0);
+            ids[i] = piece.getId();
+            horizontal[i] = piece.getOrientation() == GameEnums.Orientation.HORIZONTAL;
+            lanes[i] = horizontal[i] ? first[1] : first[0];
+            lengths[i] = piece.getPositions().size();
+            if (ids[i] == PRIMARY_ID) primary = i;
+        }
+        this.primaryIndex = primary;
+
+        // Cell index of every position along each piece's lane, so moves never recompute coordinates
+        this.laneCells = new int[n][];
+        for (int i = 0; i < n; i++) {
+            laneCells[i] = new int[laneSize(i)];
+            for (int p = 0; p < laneCells[i].length; p++) {
+                laneCells[i][p] = horizontal[i] ? lanes[i] * cols + p : p * cols + lanes[i];
+            }
+        }
+
+        // Packed state key: fixed-width offset fields, never straddling a 64-bit word
+        int maxOffset = 1;
+        for (int i = 0; i < n; i++) {
+            maxOffset = Math.max(maxOffset, laneSize(i) - lengths[i]);
+        }
+        this.keyBits = 32 - Integer.numberOfLeadingZeros(maxOffset);
+        this.piecesPerWord = 64 / keyBits;
+        this.keyWords = Math.max(1, (n + piecesPerWord - 1) / piecesPerWord);
+    }
+
+    public GameLayout(GameBoard board, List<GamePiece> pieces) {
+        this(board.getRows(), board.getCols(), board.getGoalPlacement(), board.getGoalIndex(), pieces);
+    }
+
+    // Offset of a piece is the row/col of its top/left cell along its lane
+    public int offsetOf(int index, GamePiece piece) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int[] pos : piece.getPositions()) {
+            int along = horizontal[index] ? pos[0] : pos[1];
+            min = Math.min(min, along);
+            max = Math.max(max, along);
+        }
+        if (max - min + 1 != lengths[index]) {
+            throw new IllegalArgumentException("Piece " + ids[index] + " is not contiguous");
+        }
+        if (min < 0 || max >= laneSize(index)) {
+            throw new IllegalArgumentException("Piece out of bounds");
+        }
+        return min;
+    }
+
+    public long[] occupancyOf(byte[] offsets) {
+        long[] occupancy = new long[words];
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0) continue;
+            for (int k = 0; k < lengths[i]; k++) {
+                int cell = cellIndex(i, offsets[i], k);
+                if (testBit(occupancy, cell)) {
+                    throw new IllegalArgumentException("Overlapping pieces detected");
+                }
+                occupancy[cell >>> 6] |= 1L << cell;
+            }
+        }
+        return occupancy;
+    }
+
+    public void packKey(byte[] offsets, long[] key) {
+        long mask = (1L << keyBits) - 1;
+        for (int w = 0; w < keyWords; w++) {
+            long word = 0;
+            int start = w * piecesPerWord;
+            int end = Math.min(offsets.length, start + piecesPerWord);
+            for (int i = start; i < end; i++) {
+                word |= (offsets[i] & mask) << ((i - start) * keyBits);
+            }
+            key[w] = word;
+        }
+    }
+
+    // Shifts one piece's field of a packed key, giving the key of a one-cell slide without repacking
+    public void adjustKey(long[] key, int index, int delta) {
+        int w = index / piecesPerWord;
+        key[w] += (long) delta << ((index - w * piecesPerWord) * keyBits);
+    }
+
+    public void unpackKey(long[] key, byte[] offsets) {
+        long mask = (1L << keyBits) - 1;
+        for (int i = 0; i < offsets.length; i++) {
+            int w = i / piecesPerWord;
+            offsets[i] = (byte) ((key[w] >>> ((i - w * piecesPerWord) * keyBits)) & mask);
+        }
+    }
+
+    public GamePiece toPiece(int index, int offset) {
+        List<int[]> positions = new ArrayList<>(lengths[index]);
+        for (int k = 0; k < lengths[index]; k++) {
+            positions.add(new int[] { cellCol(index, offset, k), cellRow(index, offset, k) });
+        }
+        return new GamePiece(ids[index], positions);
+    }
+
+    public boolean isGoal(int primaryOffset) {
+        if (primaryIndex < 0 || primaryOffset < 0) {
+            throw new IllegalStateException("Red car (id='P') not found");
+        }
+        for (int k = 0; k < lengths[primaryIndex]; k++) {
+            int col = cellCol(primaryIndex, primaryOffset, k);
+            int row = cellRow(primaryIndex, primaryOffset, k);
+            switch (goalPlacement) {
+                case LEFT -> {
+                    if (col == 0 && row == goalIndex) return true;
+                }
+                case RIGHT -> {
+                    if (col == cols - 1 && row == goalIndex) return true;
+                }
+                case TOP -> {
+                    if (col == goalIndex && row == 0) return true;
+                }
+                case BOTTOM -> {
+                    if (col == goalIndex && row == rows - 1) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int cellRow(int index, int offset, int k) {
+        return horizontal[index] ? lanes[index] : offset + k;
+    }
+
+    public int cellCol(int index, int offset, int k) {
+        return horizontal[index] ? offset + k : lanes[index];
+    }
+
+    public int cellIndex(int index, int offset, int k) {
+        return cellRow(index, offset, k) * cols + cellCol(index, offset, k);
+    }
+
+    public int laneCell(int index, int position) {
+        return laneCells[index][position];
+    }
+
+    public int laneSize(int index) {
+        return horizontal[index] ? cols : rows;
+    }
+
+    static boolean testBit(long[] words, int cell) {
+        return (words[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // Getters
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public GameEnums.GoalPlacement getGoalPlacement() {
+        return goalPlacement;
+    }
+
+    public int getGoalIndex() {
+        return goalIndex;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    public int getKeyWords() {
+        return keyWords;
+    }
+
+    public int getPieceCount() {
+        return ids.length;
+    }
+
+    public char getId(int index) {
+        return ids[index];
+    }
+
+    public boolean isHorizontal(int index) {
+        return horizontal[index];
+    }
+
+    public int getLane(int index) {
+        return lanes[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getPrimaryIndex() {
+        return primaryIndex;
+    }
+
+    // Layouts parsed separately from the same puzzle compare equal and pack keys identically
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameLayout other)) return false;
+        return rows == other.rows && cols == other.cols
+            && goalPlacement == other.goalPlacement && goalIndex == other.goalIndex
+            && Arrays.equals(ids, other.ids) && Arrays.equals(horizontal, other.horizontal)
+            && Arrays.equals(lanes, other.lanes) && Arrays.equals(lengths, other.lengths);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = ((rows * 31 + cols) * 31 + goalPlacement.hashCode()) * 31 + goalIndex;
+        h = h * 31 + Arrays.hashCode(ids);
+        h = h * 31 + Arrays.hashCode(horizontal);
+        h = h * 31 + Arrays.hashCode(lanes);
+        return h * 31 + Arrays.hashCode(lengths);
+    }
+}
@@ -1,125 +1,250 @@
 package rush_hour.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * A configuration of a shared GameLayout. A state reached by a move records
+ * only its parent and the move (piece index and direction); the occupancy
+ * bitboard is derived from the parent's on first use and the description
+ * string is built on request, so successors that are discarded as duplicates
+ * cost little more than their offsets. Offsets stay eager because hashing
+ * and equality need them for every generated state.
+ */
 public class GameState {
-    private final GameBoard board;
-    private final List<GamePiece> pieces;
+    private static final byte EXIT = 0; // moveDirection of the primary piece leaving the board
+
+    private final GameLayout layout;
+    private final byte[] offsets;
     private final GameState parent;
     private final int cost;
-    private final String moveDescription;
+    private final short movedPiece; // -1 for a root, whose description is the label
+    private final byte moveDirection;
+    private final String label;
+    private long[] occupancy; // Derived lazily for states reached by a move
+    private int heuristic;
 
     public GameState(GameBoard board, List<GamePiece> pieces, GameState parent, String moveDescription) {
-        this.board = board;
-        this.pieces = Collections.unmodifiableList(new ArrayList<>(pieces));
+        this.layout = new GameLayout(board, pieces);
+        this.offsets = new byte[pieces.size()];
+        for (int i = 0; i < pieces.size(); i++) {
+            offsets[i] = (byte) layout.offsetOf(i, pieces.get(i));
+        }
+        this.occupancy = layout.occupancyOf(offsets);
+        this.parent = parent;
+        this.cost = parent == null ? 0 : parent.cost + 1;
+        this.movedPiece = -1;
+        this.moveDirection = EXIT;
+        this.label = moveDescription;
+    }
+
+    private GameState(GameLayout layout, byte[] offsets, long[] occupancy, GameState parent,
+                      int movedPiece, int moveDirection, String label) {
+        this.layout = layout;
+        this.offsets = offsets;
+        this.occupancy = occupancy;
         this.parent = parent;
-        this.moveDescription = moveDescription;
         this.cost = parent == null ? 0 : parent.cost + 1;
+        this.movedPiece = (short) movedPiece;
+        this.moveDirection = (byte) moveDirection;
+        this.label = label;
+    }
+
+    // Root state for an arbitrary configuration of an existing layout
+    public static GameState of(GameLayout layout, byte[] offsets, String moveDescription) {
+        return new GameState(layout, offsets.clone(), layout.occupancyOf(offsets), null, -1, EXIT, moveDescription);
     }
 
     public GamePiece getPrimaryPiece() {
-        for (GamePiece piece : pieces) {
-            if (piece.getId() == 'P') return piece;
+        int primary = layout.getPrimaryIndex();
+        if (primary < 0 || offsets[primary] < 0) {
+            throw new IllegalStateException("Red car (id='P') not found");
         }
-        throw new IllegalStateException("Red car (id='P') not found");
+        return layout.toPiece(primary, offsets[primary]);
     }
 
     public boolean isGoal() {
-        return board.isGoalReached(getPrimaryPiece());
+        int primary = layout.getPrimaryIndex();
+        return layout.isGoal(primary < 0 ? -1 : offsets[primary]);
     }
 
     public List<GameState> generateSuccessors() {
         List<GameState> successors = new ArrayList<>();
-        for (int i = 0; i < pieces.size(); i++) {
-            GamePiece piece = pieces.get(i);
-            for (int dir : new int[]{-1, 1}) {
-                GamePiece movedPiece = new GamePiece(piece);
-                try {
-                    if (movedPiece.canMove(dir, board.getGridCopy())) {
-                        movedPiece.move(dir);
-                        List<GamePiece> newPieces = new ArrayList<>(pieces);
-                        newPieces.set(i, movedPiece);
-
-                        GameBoard newBoard = new GameBoard(
-                                board.getGridCopy().length,
-                                board.getGridCopy()[0].length,
-                                board.getGoalPlacement(),
-                                board.getGoalIndex()
-                        );
-                        newBoard.placePieces(newPieces);
-
-                        String direction;
-                        if (piece.getOrientation() == GameEnums.Orientation.HORIZONTAL) {
-                            direction = ( dir == 1 ? "Right" : "Left");
-                        } else {
-                            direction = ( dir == 1 ? "Down" : "Up");
-                        }
-
-                        successors.add(new GameState(newBoard, newPieces, this,
-                                "Move " + piece.getId() + " " + direction));
-                    }
-                } catch (IllegalArgumentException ignored) {}
-            }
+        for (int i = 0; i < offsets.length; i++) {
+            if (canMove(i, -1)) successors.add(move(i, -1));
+            if (canMove(i, 1)) successors.add(move(i, 1));
         }
         return successors;
     }
 
+    // A one-cell slide is legal when the cell entered by the piece's leading edge is free
+    public boolean canMove(int index, int dir) {
+        int offset = offsets[index];
+        if (offset < 0) return false;
+        int entering = dir > 0 ? offset + layout.getLength(index) : offset - 1;
+        if (entering < 0 || entering >= layout.laneSize(index)) return false;
+        return !GameLayout.testBit(occupancy(), layout.laneCell(index, entering));
+    }
+
+    // Applies a legal one-cell slide; the child's occupancy is derived from ours when first needed
+    public GameState move(int index, int dir) {
+        byte[] newOffsets = offsets.clone();
+        newOffsets[index] = (byte) (offsets[index] + dir);
+        return new GameState(layout, newOffsets, null, this, index, dir, null);
+    }
+
     public GameState lastMove() {
-        GamePiece piece = getPrimaryPiece();
-        List<GamePiece> newPieces =  new ArrayList<>(pieces);
-        for (int i = 0; i < pieces.size(); i++) {
-            if (pieces.get(i).getId() == 'P') {
-                newPieces.remove(i);
-                break;
-            }
+        int primary = layout.getPrimaryIndex();
+        if (primary < 0 || offsets[primary] < 0) {
+            throw new IllegalStateException("Red car (id='P') not found");
         }
+        byte[] newOffsets = offsets.clone();
+        newOffsets[primary] = -1;
+        return new GameState(layout, newOffsets, null, this, primary, EXIT, null);
+    }
 
-        GameBoard newBoard = new GameBoard(
-            board.getGridCopy().length,
-            board.getGridCopy()[0].length,
-            board.getGoalPlacement(),
-            board.getGoalIndex()
-        );
-        newBoard.placePieces(newPieces);
-
-        String direction;
-        if (piece.getOrientation() == GameEnums.Orientation.HORIZONTAL) {
-            direction = ( board.getGoalPlacement() == GameEnums.GoalPlacement.RIGHT ? "Right" : "Left");
+    // Only the entered and vacated cells differ from the parent, or all of the primary's cells for the exit
+    private long[] occupancy() {
+        long[] bits = occupancy;
+        if (bits != null) return bits;
+
+        int index = movedPiece;
+        bits = parent.occupancy().clone();
+        int previous = parent.offsets[index];
+        int length = layout.getLength(index);
+        if (moveDirection == EXIT) {
+            for (int k = 0; k < length; k++) {
+                int cell = layout.laneCell(index, previous + k);
+                bits[cell >>> 6] &= ~(1L << cell);
+            }
         } else {
-            direction = ( board.getGoalPlacement() == GameEnums.GoalPlacement.BOTTOM ? "Down" : "Up");
+            int entering = layout.laneCell(index, moveDirection > 0 ? previous + length : previous - 1);
+            int leaving = layout.laneCell(index, moveDirection > 0 ? previous : previous + length - 1);
+            bits[entering >>> 6] |= 1L << entering;
+            bits[leaving >>> 6] &= ~(1L << leaving);
         }
-
-        return new GameState(newBoard, newPieces, this, "Move P " + direction + " " +  piece.getPositions().size() + "x");
+        occupancy = bits;
+        return bits;
     }
 
+    // Pieces and board are materialized on demand; searches work on offsets and occupancy
     public List<GamePiece> getPieces() {
-        return pieces;
+        List<GamePiece> pieces = new ArrayList<>(offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] >= 0) {
+                pieces.add(layout.toPiece(i, offsets[i]));
+            }
+        }
+        return Collections.unmodifiableList(pieces);
+    }
+
+    public GameBoard getBoard() {
+        GameBoard board = new GameBoard(layout.getRows(), layout.getCols(), layout.getGoalPlacement(), layout.getGoalIndex());
+        board.placePieces(getPieces());
+        return board;
+    }
+
+    public GameLayout getLayout() {
+        return layout;
+    }
+
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    // Writes the packed configuration into key, which must hold layout.getKeyWords() longs
+    public void packKey(long[] key) {
+        layout.packKey(offsets, key);
+    }
+
+    public boolean isOccupied(int row, int col) {
+        return GameLayout.testBit(occupancy(), row * layout.getCols() + col);
+    }
+
+    // Bit c of the mask is set when (row, c) is occupied; requires cols <= 64
+    public long rowMask(int row) {
+        long[] occupancy = occupancy();
+        long mask = 0;
+        int base = row * layout.getCols();
+        for (int col = 0; col < layout.getCols(); col++) {
+            if (GameLayout.testBit(occupancy, base + col)) mask |= 1L << col;
+        }
+        return mask;
+    }
+
+    // Bit r of the mask is set when (r, col) is occupied; requires rows <= 64
+    public long columnMask(int col) {
+        long[] occupancy = occupancy();
+        long mask = 0;
+        for (int row = 0; row < layout.getRows(); row++) {
+            if (GameLayout.testBit(occupancy, row * layout.getCols() + col)) mask |= 1L << row;
+        }
+        return mask;
     }
 
     public int getCost() {
         return cost;
     }
 
+    // Heuristic estimate cached by the search when the state is generated
+    public int getHeuristic() {
+        return heuristic;
+    }
+
+    public void setHeuristic(int heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public int getTotalCost() {
+        return cost + heuristic;
+    }
+
+    // Built on request; searches never need it, only displayed paths do
     public String getMoveDescription() {
-        return moveDescription;
+        if (movedPiece < 0) return label;
+
+        String direction;
+        if (moveDirection == EXIT) {
+            if (layout.isHorizontal(movedPiece)) {
+                direction = ( layout.getGoalPlacement() == GameEnums.GoalPlacement.RIGHT ? "Right" : "Left");
+            } else {
+                direction = ( layout.getGoalPlacement() == GameEnums.GoalPlacement.BOTTOM ? "Down" : "Up");
+            }
+            return "Move P " + direction + " " + layout.getLength(movedPiece) + "x";
+        }
+        if (layout.isHorizontal(movedPiece)) {
+            direction = ( moveDirection == 1 ? "Right" : "Left");
+        } else {
+            direction = ( moveDirection == 1 ? "Down" : "Up");
+        }
+        return "Move " + layout.getId(movedPiece) + " " + direction;
     }
 
     public GameState getParent() {
         return parent;
     }
 
-    public GameBoard getBoard() {
-        return board;
+    // Two states are equal when they describe the same configuration of the same layout
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameState other)) return false;
+        return layout == other.layout && Arrays.equals(offsets, other.offsets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(offsets);
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(moveDescription);
+        sb.append(getMoveDescription());
         sb.append('\n');
-        sb.append(board.toString());
+        sb.append(getBoard().toString());
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,36 @@
 package rush_hour.solver;
 
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 import rush_hour.model.GameState;
+import rush_hour.solver.algorithm.AnytimeSearch;
+import rush_hour.solver.algorithm.BeamSearch;
+import rush_hour.solver.algorithm.BidirectionalSearch;
+import rush_hour.solver.algorithm.ExternalBfsSearch;
+import rush_hour.solver.algorithm.FringeSearch;
+import rush_hour.solver.algorithm.HDAStarSearch;
 import rush_hour.solver.algorithm.IDAStarSearch;
+import rush_hour.solver.algorithm.RetrogradeSearch;
+import rush_hour.solver.algorithm.SMAStarSearch;
 import rush_hour.solver.algorithm.SearchAlgorithm;
+import rush_hour.solver.algorithm.SearchBudget;
 import rush_hour.solver.algorithm.StandardSearch;
+import rush_hour.solver.cache.SolutionCache;
 import rush_hour.solver.comparator.AStarComparator;
 import rush_hour.solver.comparator.GreedyComparator;
 import rush_hour.solver.comparator.UCSComparator;
+import rush_hour.solver.frontier.BucketFrontier;
+import rush_hour.solver.frontier.Frontier;
+import rush_hour.solver.frontier.HeapFrontier;
 import rush_hour.solver.heuristic.BlockerHeuristic;
+import rush_hour.solver.heuristic.BlockingChainHeuristic;
 import rush_hour.solver.heuristic.CombinedHeuristic;
 import rush_hour.solver.heuristic.DistanceHeuristic;
 import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.heuristic.PatternDatabaseHeuristic;
+import rush_hour.solver.metrics.SearchMetrics;
 
 public class GameSolver {
     public static HeuristicFunction createHeuristic(String heuristicName) {
@@ -20,35 +38,145 @@ public class GameSolver {
             case "Distance" -> new DistanceHeuristic();
             case "Blocker Count" -> new BlockerHeuristic();
             case "Combined" -> new CombinedHeuristic();
+            case "Blocking Chain" -> new BlockingChainHeuristic();
+            case "Pattern Database" -> new PatternDatabaseHeuristic();
             default -> new CombinedHeuristic(); // Default to combined
         };
     }
 
+    public static final String[] FRONTIERS = {
+        "Binary Heap", "Bucket Queue", "Bucket Queue (LIFO)", "Bucket Queue (ties on g)", "Bucket Queue (LIFO, ties on g)"
+    };
+
+    // "Binary Heap" orders the open list with a comparator; "Bucket Queue" indexes it by integer cost and
+    // takes options in parentheses: FIFO or LIFO within a bucket, and "ties on h", "ties on g" or "no ties"
+    public static Supplier<Frontier> createFrontier(String algorithmName, String frontierName) {
+        if (frontierName.equals("Binary Heap")) {
+            return switch (algorithmName) {
+                case "UCS" -> () -> new HeapFrontier(new UCSComparator());
+                case "Greedy Best First" -> () -> new HeapFrontier(new GreedyComparator());
+                case "A*" -> () -> new HeapFrontier(new AStarComparator());
+                default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithmName);
+            };
+        }
+        if (!frontierName.startsWith("Bucket Queue")) {
+            throw new IllegalArgumentException("Unknown frontier: " + frontierName);
+        }
+
+        ToIntFunction<GameState> primary = switch (algorithmName) {
+            case "UCS" -> GameState::getCost;
+            case "Greedy Best First" -> GameState::getHeuristic;
+            case "A*" -> GameState::getTotalCost;
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithmName);
+        };
+        // Without options: A* prefers the state nearer the goal, greedy the one nearer the start
+        ToIntFunction<GameState> tieBreak = switch (algorithmName) {
+            case "Greedy Best First" -> GameState::getCost;
+            case "A*" -> GameState::getHeuristic;
+            default -> null;
+        };
+        boolean lifo = false;
+
+        String options = frontierName.substring("Bucket Queue".length()).trim();
+        if (!options.isEmpty()) {
+            if (!options.startsWith("(") || !options.endsWith(")")) {
+                throw new IllegalArgumentException("Unknown frontier: " + frontierName);
+            }
+            for (String option : options.substring(1, options.length() - 1).split(",")) {
+                switch (option.trim()) {
+                    case "FIFO" -> lifo = false;
+                    case "LIFO" -> lifo = true;
+                    case "ties on h" -> tieBreak = GameState::getHeuristic;
+                    case "ties on g" -> tieBreak = GameState::getCost;
+                    case "no ties" -> tieBreak = null;
+                    default -> throw new IllegalArgumentException("Unknown bucket queue option: " + option.trim());
+                }
+            }
+        }
+
+        ToIntFunction<GameState> secondary = tieBreak;
+        boolean newestFirst = lifo;
+        return () -> new BucketFrontier(primary, secondary, newestFirst);
+    }
+
     public static SearchAlgorithm createSolver(String algorithmName, String heuristicName) {
+        return createSolver(algorithmName, heuristicName, "Binary Heap");
+    }
+
+    public static SearchAlgorithm createSolver(String algorithmName, String heuristicName, String frontierName) {
         HeuristicFunction heuristic = createHeuristic(heuristicName);
         
         return switch (algorithmName) {
-            case "UCS" -> new StandardSearch(new UCSComparator());
-            case "Greedy Best First" -> new StandardSearch(new GreedyComparator(heuristic));
-            case "A*" -> new StandardSearch(new AStarComparator(heuristic));
+            case "UCS" -> new StandardSearch(createFrontier(algorithmName, frontierName), null);
+            case "Greedy Best First", "A*" -> new StandardSearch(createFrontier(algorithmName, frontierName), heuristic);
             case "IDA*" -> new IDAStarSearch(heuristic);
+            case "Fringe" -> new FringeSearch(heuristic);
+            case "HDA*" -> new HDAStarSearch(heuristic);
+            case "ARA*" -> new AnytimeSearch(heuristic);
+            case "SMA*" -> new SMAStarSearch(heuristic);
+            case "Beam Search" -> new BeamSearch(heuristic);
+            case "Bidirectional BFS" -> new BidirectionalSearch();
+            case "External BFS" -> new ExternalBfsSearch();
+            case "Retrograde" -> new RetrogradeSearch();
             default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithmName);
         };
     }
 
     public static SolverResult solve(GameState initialState, String algorithmName, String heuristicName) {
-        SearchAlgorithm algorithm = createSolver(algorithmName, heuristicName);
-        List<GameState> path = algorithm.solve(initialState);
-        return new SolverResult(path, algorithm.getNodesExplored());
+        return solve(initialState, algorithmName, heuristicName, "Binary Heap");
+    }
+
+    public static SolverResult solve(GameState initialState, String algorithmName, String heuristicName, String frontierName) {
+        return solve(initialState, algorithmName, heuristicName, frontierName, SearchBudget.unlimited());
+    }
+
+    public static SolverResult solve(GameState initialState, String algorithmName, String heuristicName, String frontierName, SearchBudget budget) {
+        SearchAlgorithm algorithm = createSolver(algorithmName, heuristicName, frontierName);
+        List<GameState> path = algorithm.solve(initialState, budget);
+        return new SolverResult(path, algorithm.getNodesExplored(), budget.getStopReason(), algorithm.getMetrics());
+    }
+
+    public static SolverResult solve(GameState initialState, String algorithmName, String heuristicName, String frontierName, SolutionCache cache) {
+        return solve(initialState, algorithmName, heuristicName, frontierName, cache, SearchBudget.unlimited());
+    }
+
+    // A cache hit explores no nodes; completed misses are solved and recorded, aborted ones are not
+    public static SolverResult solve(GameState initialState, String algorithmName, String heuristicName, String frontierName,
+                                     SolutionCache cache, SearchBudget budget) {
+        if (cache == null) {
+            return solve(initialState, algorithmName, heuristicName, frontierName, budget);
+        }
+        String optimalityClass = SolutionCache.optimalityClass(algorithmName, heuristicName);
+        List<GameState> cached = cache.get(initialState, optimalityClass);
+        if (cached != null) {
+            return new SolverResult(cached, 0);
+        }
+        SolverResult result = solve(initialState, algorithmName, heuristicName, frontierName, budget);
+        if (!result.isAborted()) {
+            cache.put(initialState, optimalityClass, result.getPath());
+        }
+        return result;
     }
 
     public static class SolverResult {
         private final List<GameState> path;
         private final int nodesExplored;
+        private final SearchBudget.StopReason stopReason;
+        private final SearchMetrics metrics;
 
         public SolverResult(List<GameState> path, int nodesExplored) {
+            this(path, nodesExplored, null);
+        }
+
+        public SolverResult(List<GameState> path, int nodesExplored, SearchBudget.StopReason stopReason) {
+            this(path, nodesExplored, stopReason, new SearchMetrics());
+        }
+
+        public SolverResult(List<GameState> path, int nodesExplored, SearchBudget.StopReason stopReason, SearchMetrics metrics) {
             this.path = path;
             this.nodesExplored = nodesExplored;
+            this.stopReason = stopReason;
+            this.metrics = metrics;
         }
 
         public List<GameState> getPath() {
@@ -58,5 +186,19 @@ public class GameSolver {
         public int getNodesExplored() {
             return nodesExplored;
         }
+
+        // An aborted search has an empty path that says nothing about solvability
+        public boolean isAborted() {
+            return stopReason != null;
+        }
+
+        public SearchBudget.StopReason getStopReason() {
+            return stopReason;
+        }
+
+        // Empty for a cache hit, since no search ran
+        public SearchMetrics getMetrics() {
+            return metrics;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package rush_hour.solver.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.StateTable;
+
+/**
+ * Anytime repairing A* (ARA*). The first iteration is weighted A* ordered by
+ * g + w * h, which finds a path quickly; every later iteration lowers w by
+ * weightStep and continues from the same open list and best-g table, only
+ * re-opening states whose g improved after they were closed. An iteration
+ * stops once no open state can beat the incumbent under the current weight.
+ *
+ * After each iteration the incumbent is published with its proven bound,
+ * min(w, cost / lowest g + h still open), so it is at most that factor
+ * longer than optimal. With w = 1 the bound reaches 1 and the path is
+ * optimal. When the budget runs out the best path found so far is returned.
+ */
+public class AnytimeSearch implements SearchAlgorithm {
+    private static final double DEFAULT_INITIAL_WEIGHT = 3.0;
+    private static final double DEFAULT_WEIGHT_STEP = 0.5;
+
+    // One published solution: its path, the weight that found it, and its proven suboptimality bound
+    public record Improvement(List<GameState> path, double weight, double bound, int nodesExplored) {
+    }
+
+    private final HeuristicFunction heuristic;
+    private final double initialWeight;
+    private final double weightStep;
+    private Consumer<Improvement> listener;
+    private List<Improvement> improvements = new ArrayList<>();
+    private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+
+    public AnytimeSearch(HeuristicFunction heuristic) {
+        this(heuristic, DEFAULT_INITIAL_WEIGHT, DEFAULT_WEIGHT_STEP);
+    }
+
+    public AnytimeSearch(HeuristicFunction heuristic, double initialWeight, double weightStep) {
+        if (initialWeight < 1) {
+            throw new IllegalArgumentException("Initial weight must be at least 1");
+        }
+        if (weightStep <= 0) {
+            throw new IllegalArgumentException("Weight step must be positive");
+        }
+        this.heuristic = heuristic;
+        this.initialWeight = initialWeight;
+        this.weightStep = weightStep;
+    }
+
+    // Called on the searching thread each time the path or its bound improves
+    public void setListener(Consumer<Improvement> listener) {
+        this.listener = listener;
+    }
+
+    // Every improvement of the last solve, in the order they were published
+    public List<Improvement> getImprovements() {
+        return improvements;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        GameLayout layout = initialState.getLayout();
+        StateTable bestCost = new StateTable(layout);
+        StateTable closed = new StateTable(layout);
+        List<GameState> inconsistent = new ArrayList<>();
+        long stateBytes = SearchBudget.stateBytes(layout);
+        nodesExplored = 0;
+        improvements = new ArrayList<>();
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
+
+        double weight = initialWeight;
+        PriorityQueue<GameState> open = new PriorityQueue<>(order(weight));
+        initialState.setHeuristic(metrics.evaluate(heuristic, initialState));
+        bestCost.put(initialState, 0);
+        open.add(initialState);
+
+        GameState goal = null;
+        int incumbent = Integer.MAX_VALUE; // Moves of the best path, counting the exit
+        int publishedCost = Integer.MAX_VALUE;
+        double publishedBound = Double.MAX_VALUE;
+
+        try {
+            while (true) {
+                // Improve the path under the current weight
+                while (!open.isEmpty() && incumbent > priority(open.peek(), weight)) {
+                    if (budget.exhausted(nodesExplored, open.size(), bestCost.sizeInBytes() + (bestCost.size() + open.size()) * stateBytes)) {
+                        return goal == null ? Collections.emptyList() : finish(goal);
+                    }
+                    GameState current = open.poll();
+                    if (current.getCost() > bestCost.get(current, Integer.MAX_VALUE) || !closed.add(current)) {
+                        metrics.duplicate(); // Superseded by a cheaper copy
+                        continue;
+                    }
+                    nodesExplored++;
+                    metrics.expanded(open.size(), bestCost.size());
+
+                    if (current.isGoal()) {
+                        if (current.getCost() + 1 < incumbent) {
+                            incumbent = current.getCost() + 1;
+                            goal = current;
+                        }
+                        continue;
+                    }
+
+                    List<GameState> successors = current.generateSuccessors();
+                    metrics.generated(successors.size());
+                    for (GameState neighbor : successors) {
+                        if (neighbor.getCost() >= bestCost.get(neighbor, Integer.MAX_VALUE)) {
+                            metrics.duplicate();
+                            continue;
+                        }
+                        bestCost.put(neighbor, neighbor.getCost());
+                        neighbor.setHeuristic(metrics.evaluate(heuristic, neighbor));
+                        if (closed.contains(neighbor)) {
+                            inconsistent.add(neighbor); // Re-opened by the next iteration
+                        } else {
+                            open.add(neighbor);
+                        }
+                    }
+                }
+
+                if (goal == null) {
+                    return Collections.emptyList(); // Everything reachable was closed without a goal
+                }
+
+                double bound = Math.min(weight, (double) incumbent / lowestEstimate(open, inconsistent, bestCost, incumbent));
+                if (incumbent < publishedCost || bound < publishedBound) {
+                    publishedCost = incumbent;
+                    publishedBound = bound;
+                    publish(new Improvement(StandardSearch.reconstructPath(goal.lastMove()), weight, bound, nodesExplored));
+                }
+                if (bound <= 1) {
+                    return finish(goal);
+                }
+
+                // Lower the weight and resume from the old frontier plus the re-opened states
+                weight = Math.max(1, weight - weightStep);
+                PriorityQueue<GameState> next = new PriorityQueue<>(Math.max(1, open.size() + inconsistent.size()), order(weight));
+                next.addAll(open);
+                next.addAll(inconsistent);
+                open = next;
+                inconsistent.clear();
+                closed.clear();
+            }
+        } finally {
+            long retained = bestCost.size() + open.size() + inconsistent.size();
+            metrics.retained(bestCost.sizeInBytes() + closed.sizeInBytes() + retained * stateBytes, retained);
+            metrics.finish();
+        }
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    private List<GameState> finish(GameState goal) {
+        nodesExplored += StandardSearch.exitNodes(goal);
+        return StandardSearch.reconstructPath(goal.lastMove());
+    }
+
+    private void publish(Improvement improvement) {
+        improvements.add(improvement);
+        if (listener != null) {
+            listener.accept(improvement);
+        }
+    }
+
+    // Smallest admissible f among states that are still current; the incumbent itself when none is left
+    private static int lowestEstimate(PriorityQueue<GameState> open, List<GameState> inconsistent, StateTable bestCost, int incumbent) {
+        int lowest = incumbent;
+        for (GameState state : open) {
+            if (state.getCost() <= bestCost.get(state, Integer.MAX_VALUE)) {
+                lowest = Math.min(lowest, state.getTotalCost());
+            }
+        }
+        for (GameState state : inconsistent) {
+            if (state.getCost() <= bestCost.get(state, Integer.MAX_VALUE)) {
+                lowest = Math.min(lowest, state.getTotalCost());
+            }
+        }
+        return Math.max(1, lowest);
+    }
+
+    private static double priority(GameState state, double weight) {
+        return state.getCost() + weight * state.getHeuristic();
+    }
+
+    // Inflated f first, then the state nearer the goal
+    private static Comparator<GameState> order(double weight) {
+        return Comparator.<GameState>comparingDouble(state -> priority(state, weight))
+            .thenComparingInt(GameState::getHeuristic);
+    }
+}
@@ -0,0 +1,130 @@
+package rush_hour.solver.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.StateTable;
+
+/**
+ * Breadth-first beam search: each layer keeps only the width states with
+ * the lowest heuristic, and duplicates are detected against the previous,
+ * current and next layers only. Resident states are the kept layers and the
+ * ancestors they still reference, so memory does not grow with the size of
+ * the state space. The first goal reached is returned; it is the shortest
+ * path among those the beam kept, not necessarily the shortest overall.
+ *
+ * A pruned beam can wander through states it discarded earlier, so layers
+ * stop at MAX_DEPTH. When the beam runs dry or reaches that depth after
+ * discarding states the puzzle may still be solvable, so the search stops
+ * with MEMORY_LIMIT instead of reporting it unsolvable.
+ */
+public class BeamSearch implements SearchAlgorithm {
+    public static final String WIDTH_PROPERTY = "rush_hour.beam.width";
+
+    private static final int DEFAULT_WIDTH = 1 << 14;
+    private static final int MAX_DEPTH = 1 << 12;
+
+    private final HeuristicFunction heuristic;
+    private final int width;
+    private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+
+    public BeamSearch(HeuristicFunction heuristic) {
+        this(heuristic, Integer.getInteger(WIDTH_PROPERTY, DEFAULT_WIDTH));
+    }
+
+    public BeamSearch(HeuristicFunction heuristic, int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Beam width must be positive");
+        }
+        this.heuristic = heuristic;
+        this.width = width;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        GameLayout layout = initialState.getLayout();
+        long stateBytes = SearchBudget.stateBytes(layout);
+        nodesExplored = 0;
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
+
+        List<GameState> layer = new ArrayList<>();
+        StateTable previous = new StateTable(layout);
+        StateTable current = new StateTable(layout);
+        layer.add(initialState);
+        current.add(initialState);
+        boolean pruned = false;
+        long retained = 1;
+
+        try {
+            if (initialState.isGoal()) {
+                nodesExplored += StandardSearch.exitNodes(initialState);
+                return StandardSearch.reconstructPath(initialState.lastMove());
+            }
+            for (int depth = 0; depth < MAX_DEPTH && !layer.isEmpty(); depth++) {
+                List<GameState> next = new ArrayList<>();
+                StateTable seen = new StateTable(layout);
+                for (GameState state : layer) {
+                    long tables = previous.sizeInBytes() + current.sizeInBytes() + seen.sizeInBytes();
+                    if (budget.exhausted(nodesExplored, layer.size() + next.size(), tables + retained * stateBytes)) {
+                        return Collections.emptyList();
+                    }
+                    nodesExplored++;
+                    metrics.expanded(layer.size() + next.size(), previous.size() + current.size());
+
+                    List<GameState> successors = state.generateSuccessors();
+                    metrics.generated(successors.size());
+                    for (GameState neighbor : successors) {
+                        if (previous.contains(neighbor) || current.contains(neighbor) || !seen.add(neighbor)) {
+                            metrics.duplicate();
+                            continue;
+                        }
+                        if (neighbor.isGoal()) {
+                            nodesExplored += StandardSearch.exitNodes(neighbor);
+                            return StandardSearch.reconstructPath(neighbor.lastMove());
+                        }
+                        neighbor.setHeuristic(metrics.evaluate(heuristic, neighbor));
+                        next.add(neighbor);
+                    }
+                }
+
+                if (next.size() > width) {
+                    next.sort(Comparator.comparingInt(GameState::getHeuristic));
+                    next = new ArrayList<>(next.subList(0, width));
+                    pruned = true;
+                }
+                previous = current;
+                current = new StateTable(layout);
+                for (GameState state : next) {
+                    current.add(state);
+                }
+                retained += next.size();
+                layer = next;
+            }
+
+            if (pruned) budget.stop(SearchBudget.StopReason.MEMORY_LIMIT);
+            return Collections.emptyList();
+        } finally {
+            metrics.retained(previous.sizeInBytes() + current.sizeInBytes() + retained * stateBytes, retained);
+            metrics.finish();
+        }
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+}
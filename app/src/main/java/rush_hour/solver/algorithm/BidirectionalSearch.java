@@ -0,0 +1,264 @@
+package rush_hour.solver.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.StateTable;
+
+/**
+ * Bidirectional breadth-first search. Moves are reversible, so the backward
+ * side expands ordinary successors starting from every goal configuration
+ * (primary piece at the exit, other pieces in their original lane order).
+ * The smaller frontier layer is expanded in full each round; once a layer
+ * produces a meeting, the shortest meeting found in that layer is optimal.
+ *
+ * If the puzzle has more goal configurations than the seed limit, the
+ * backward side is skipped and the search degrades to plain BFS.
+ */
+public class BidirectionalSearch implements SearchAlgorithm {
+    private static final int DEFAULT_SEED_LIMIT = 1 << 20;
+
+    private final int seedLimit;
+    private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+    private Side forward, backward; // Held during a solve so the footprint can be recorded on any exit
+
+    public BidirectionalSearch() {
+        this(DEFAULT_SEED_LIMIT);
+    }
+
+    public BidirectionalSearch(int seedLimit) {
+        this.seedLimit = seedLimit;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        metrics = new SearchMetrics();
+        metrics.start();
+        try {
+            return search(initialState, budget);
+        } finally {
+            if (forward != null) {
+                long stored = forward.size() + backward.size();
+                long stateBytes = SearchBudget.stateBytes(initialState.getLayout());
+                metrics.retained(forward.index.sizeInBytes() + backward.index.sizeInBytes() + stored * stateBytes, stored);
+            }
+            forward = backward = null;
+            metrics.finish();
+        }
+    }
+
+    private List<GameState> search(GameState initialState, SearchBudget budget) {
+        nodesExplored = 0;
+        budget.start();
+        GameLayout layout = initialState.getLayout();
+        long stateBytes = SearchBudget.stateBytes(layout);
+
+        if (initialState.isGoal()) {
+            nodesExplored++;
+            return finish(initialState, null);
+        }
+
+        forward = new Side(layout);
+        forward.seed(initialState);
+        backward = new Side(layout);
+        for (GameState seed : goalConfigurations(initialState, budget)) {
+            backward.seed(seed);
+        }
+        if (budget.isStopped()) {
+            return Collections.emptyList();
+        }
+        boolean bidirectional = backward.size() > 0;
+
+        int best = Integer.MAX_VALUE;
+        GameState meetForward = null, meetBackward = null;
+
+        while (!forward.layer.isEmpty() && (!bidirectional || !backward.layer.isEmpty())) {
+            boolean expandForward = !bidirectional || forward.layer.size() <= backward.layer.size();
+            Side side = expandForward ? forward : backward;
+            Side other = expandForward ? backward : forward;
+
+            List<GameState> next = new ArrayList<>();
+            for (GameState current : side.layer) {
+                long stored = forward.size() + backward.size();
+                long heapBytes = forward.index.sizeInBytes() + backward.index.sizeInBytes() + stored * stateBytes;
+                if (budget.exhausted(nodesExplored, side.layer.size() + next.size(), heapBytes)) {
+                    return Collections.emptyList();
+                }
+                nodesExplored++;
+                metrics.expanded(side.layer.size() + next.size(), forward.size() + backward.size());
+                if (!bidirectional && current.isGoal()) {
+                    return finish(current, null);
+                }
+                List<GameState> successors = current.generateSuccessors();
+                metrics.generated(successors.size());
+                for (GameState neighbor : successors) {
+                    if (!side.add(neighbor)) {
+                        metrics.duplicate();
+                        continue;
+                    }
+                    next.add(neighbor);
+
+                    if (!bidirectional) continue;
+                    int otherDepth = other.depthOf(neighbor);
+                    if (otherDepth >= 0 && side.depth + 1 + otherDepth < best) {
+                        best = side.depth + 1 + otherDepth;
+                        meetForward = expandForward ? neighbor : other.stateOf(neighbor);
+                        meetBackward = expandForward ? other.stateOf(neighbor) : neighbor;
+                    }
+                }
+            }
+            side.layer = next;
+            side.depth++;
+
+            if (meetForward != null) {
+                return finish(meetForward, meetBackward);
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Replays the backward half as forward moves so the path has ordinary parents and descriptions
+    private List<GameState> finish(GameState meetForward, GameState meetBackward) {
+        GameState current = meetForward;
+        for (GameState step = meetBackward == null ? null : meetBackward.getParent(); step != null; step = step.getParent()) {
+            current = applyDifference(current, step);
+        }
+        nodesExplored += StandardSearch.exitNodes(current);
+        return StandardSearch.reconstructPath(current.lastMove());
+    }
+
+    private GameState applyDifference(GameState from, GameState to) {
+        for (int i = 0; i < from.getLayout().getPieceCount(); i++) {
+            int delta = to.getOffset(i) - from.getOffset(i);
+            if (delta != 0) {
+                return from.move(i, delta);
+            }
+        }
+        throw new IllegalStateException("Backward path contains a repeated configuration");
+    }
+
+    // Every legal placement with the primary piece on the exit and lane order preserved
+    private List<GameState> goalConfigurations(GameState initialState, SearchBudget budget) {
+        GameLayout layout = initialState.getLayout();
+        int n = layout.getPieceCount();
+        int primary = layout.getPrimaryIndex();
+        if (primary < 0) return Collections.emptyList();
+
+        // Pieces sharing a lane can never pass each other, so each must stay behind its predecessor
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(initialState.getOffset(a), initialState.getOffset(b)));
+        int[] predecessor = new int[n];
+        Arrays.fill(predecessor, -1);
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < a; b++) {
+                int i = order[a], j = order[b];
+                if (layout.isHorizontal(i) == layout.isHorizontal(j) && layout.getLane(i) == layout.getLane(j)) {
+                    predecessor[i] = j;
+                }
+            }
+        }
+
+        List<GameState> seeds = new ArrayList<>();
+        byte[] offsets = new byte[n];
+        long[] occupancy = new long[layout.getWords()];
+        if (!enumerate(layout, order, predecessor, 0, offsets, occupancy, seeds, budget)) {
+            return Collections.emptyList();
+        }
+        return seeds;
+    }
+
+    private boolean enumerate(GameLayout layout, Integer[] order, int[] predecessor, int depth,
+                              byte[] offsets, long[] occupancy, List<GameState> seeds, SearchBudget budget) {
+        if (depth == order.length) {
+            if (seeds.size() >= seedLimit) return false;
+            if (budget.exhausted(0, seeds.size(), seeds.size() * SearchBudget.stateBytes(layout))) return false;
+            seeds.add(GameState.of(layout, offsets, "Goal"));
+            return true;
+        }
+
+        int piece = order[depth];
+        int length = layout.getLength(piece);
+        int min = predecessor[piece] < 0 ? 0 : offsets[predecessor[piece]] + layout.getLength(predecessor[piece]);
+        for (int offset = min; offset + length <= layout.laneSize(piece); offset++) {
+            if (piece == layout.getPrimaryIndex() && !layout.isGoal(offset)) continue;
+            if (!fits(layout, piece, offset, occupancy)) continue;
+
+            toggle(layout, piece, offset, occupancy);
+            offsets[piece] = (byte) offset;
+            boolean withinLimit = enumerate(layout, order, predecessor, depth + 1, offsets, occupancy, seeds, budget);
+            toggle(layout, piece, offset, occupancy);
+            if (!withinLimit) return false;
+        }
+        return true;
+    }
+
+    private boolean fits(GameLayout layout, int piece, int offset, long[] occupancy) {
+        for (int k = 0; k < layout.getLength(piece); k++) {
+            int cell = layout.laneCell(piece, offset + k);
+            if ((occupancy[cell >>> 6] & (1L << cell)) != 0) return false;
+        }
+        return true;
+    }
+
+    private void toggle(GameLayout layout, int piece, int offset, long[] occupancy) {
+        for (int k = 0; k < layout.getLength(piece); k++) {
+            int cell = layout.laneCell(piece, offset + k);
+            occupancy[cell >>> 6] ^= 1L << cell;
+        }
+    }
+
+    // Visited configurations of one direction, with their depth and the node that reached them
+    private static class Side {
+        final StateTable index;
+        final List<GameState> states = new ArrayList<>();
+        List<GameState> layer = new ArrayList<>();
+        int depth = 0;
+
+        Side(GameLayout layout) {
+            this.index = new StateTable(layout);
+        }
+
+        void seed(GameState state) {
+            if (add(state)) layer.add(state);
+        }
+
+        boolean add(GameState state) {
+            if (index.get(state, -1) >= 0) return false;
+            index.put(state, states.size());
+            states.add(state);
+            return true;
+        }
+
+        // Depth equals cost because each side's roots have cost 0
+        int depthOf(GameState state) {
+            int slot = index.get(state, -1);
+            return slot < 0 ? -1 : states.get(slot).getCost();
+        }
+
+        GameState stateOf(GameState state) {
+            return states.get(index.get(state, -1));
+        }
+
+        int size() {
+            return states.size();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package rush_hour.solver.algorithm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.metrics.SearchMetrics;
+
+/**
+ * Breadth-first search with the layers on disk and delayed duplicate
+ * detection. Each layer is a file of sorted, distinct packed keys. Expanding
+ * a layer streams it, collects successor keys in a fixed-size buffer and
+ * spills the buffer as a sorted run whenever it fills. The runs are then
+ * merged and, in the same pass, checked against the current and previous
+ * layers: every move can be undone, so a successor of layer d that was seen
+ * before is in layer d - 1 or d. Memory is the buffer plus one read buffer
+ * per run, whatever the size of the state space.
+ *
+ * The path is rebuilt backwards by scanning each earlier layer for a
+ * neighbour of the state after it, then replayed from the initial state.
+ * Layer files live in a fresh directory under rush_hour.bfs.dir (default
+ * the system temporary directory) that is removed when the search ends.
+ */
+public class ExternalBfsSearch implements SearchAlgorithm {
+    public static final String DIRECTORY_PROPERTY = "rush_hour.bfs.dir";
+
+    private static final int DEFAULT_BUFFER_KEYS = 1 << 20;
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+    private static final int MAX_FAN_IN = 64; // Runs open at once while merging
+    private static final Comparator<long[]> KEY_ORDER = Arrays::compare;
+
+    private final Path directory;
+    private final int bufferKeys;
+    private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+
+    // A sorted file of distinct keys
+    private record Layer(Path file, long size) {
+    }
+
+    // A merged layer and the first goal key written to it, or null when it holds none
+    private record Merged(Layer layer, long[] goal) {
+    }
+
+    public ExternalBfsSearch() {
+        this(Paths.get(System.getProperty(DIRECTORY_PROPERTY, System.getProperty("java.io.tmpdir"))), DEFAULT_BUFFER_KEYS);
+    }
+
+    public ExternalBfsSearch(Path directory, int bufferKeys) {
+        if (bufferKeys < 1) {
+            throw new IllegalArgumentException("Buffer must hold at least one key");
+        }
+        this.directory = directory;
+        this.bufferKeys = bufferKeys;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        GameLayout layout = initialState.getLayout();
+        long bufferBytes = (long) bufferKeys * (8L * layout.getKeyWords() + 32);
+        nodesExplored = 0;
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
+
+        Path work = null;
+        try {
+            work = Files.createTempDirectory(directory, "rush-hour-bfs");
+            return search(initialState, budget, work, bufferBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("External BFS failed in " + directory, e);
+        } finally {
+            metrics.retained(bufferBytes, bufferKeys);
+            metrics.finish();
+            if (work != null) {
+                deleteAll(work);
+            }
+        }
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    private List<GameState> search(GameState initialState, SearchBudget budget, Path work, long bufferBytes) throws IOException {
+        GameLayout layout = initialState.getLayout();
+        int keyWords = layout.getKeyWords();
+        if (initialState.isGoal()) {
+            nodesExplored += StandardSearch.exitNodes(initialState);
+            return StandardSearch.reconstructPath(initialState.lastMove());
+        }
+
+        long[] rootKey = new long[keyWords];
+        initialState.packKey(rootKey);
+        List<Layer> layers = new ArrayList<>();
+        layers.add(write(work.resolve("layer-0"), List.of(rootKey), 1));
+        long stored = 1;
+
+        byte[] offsets = new byte[layout.getPieceCount()];
+        long[][] buffer = new long[Math.min(bufferKeys, 1 << 12)][];
+        while (true) {
+            int depth = layers.size() - 1;
+            Layer layer = layers.get(depth);
+            if (layer.size() == 0) {
+                return Collections.emptyList();
+            }
+
+            // Expand the layer into sorted runs of successor keys
+            List<Layer> runs = new ArrayList<>();
+            int count = 0;
+            try (KeyReader reader = new KeyReader(layer, keyWords)) {
+                while (reader.advance()) {
+                    if (budget.exhausted(nodesExplored, count, bufferBytes)) {
+                        return Collections.emptyList();
+                    }
+                    nodesExplored++;
+                    metrics.expanded(layer.size(), stored);
+
+                    layout.unpackKey(reader.key, offsets);
+                    GameState state = GameState.of(layout, offsets, null);
+                    for (int i = 0; i < offsets.length; i++) {
+                        for (int dir = -1; dir <= 1; dir += 2) {
+                            if (!state.canMove(i, dir)) continue;
+                            metrics.generated(1);
+                            long[] key = reader.key.clone();
+                            layout.adjustKey(key, i, dir);
+                            if (count == buffer.length) {
+                                if (count == bufferKeys) {
+                                    runs.add(spill(work.resolve("run-" + depth + "-" + runs.size()), buffer, count));
+                                    count = 0;
+                                } else {
+                                    buffer = Arrays.copyOf(buffer, (int) Math.min(bufferKeys, 2L * buffer.length));
+                                }
+                            }
+                            buffer[count++] = key;
+                        }
+                    }
+                }
+            }
+            if (count > 0) {
+                runs.add(spill(work.resolve("run-" + depth + "-" + runs.size()), buffer, count));
+            }
+            Arrays.fill(buffer, null);
+
+            // Merge runs in groups until the rest can be opened together
+            for (int pass = 0; runs.size() > MAX_FAN_IN; pass++) {
+                List<Layer> merged = new ArrayList<>();
+                for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                    List<Layer> group = runs.subList(from, Math.min(runs.size(), from + MAX_FAN_IN));
+                    Path file = work.resolve("run-" + depth + "-" + pass + "-" + merged.size());
+                    merged.add(merge(file, group, null, null, layout).layer());
+                    for (Layer run : group) {
+                        Files.delete(run.file());
+                    }
+                }
+                runs = merged;
+            }
+
+            // Merge the runs into the next layer, dropping keys already in this layer or the one before
+            Merged next = merge(work.resolve("layer-" + (depth + 1)), runs, layer,
+                depth > 0 ? layers.get(depth - 1) : null, layout);
+            for (Layer run : runs) {
+                Files.delete(run.file());
+            }
+            layers.add(next.layer());
+            stored += next.layer().size();
+            if (next.goal() != null) {
+                return reconstruct(initialState, layers, next.goal());
+            }
+        }
+    }
+
+    private Layer spill(Path file, long[][] keys, int count) throws IOException {
+        Arrays.sort(keys, 0, count, KEY_ORDER);
+        List<long[]> distinct = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && Arrays.equals(keys[i], keys[i - 1])) {
+                metrics.duplicate();
+                continue;
+            }
+            distinct.add(keys[i]);
+        }
+        return write(file, distinct, distinct.size());
+    }
+
+    private static Layer write(Path file, List<long[]> keys, long size) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_BYTES))) {
+            for (long[] key : keys) {
+                for (long word : key) {
+                    out.writeLong(word);
+                }
+            }
+        }
+        return new Layer(file, size);
+    }
+
+    // Writes the distinct keys of the runs in order. Given the current layer, keys in it or the previous
+    // layer are dropped and the merge stops early at the first goal; without it this only combines runs.
+    private Merged merge(Path file, List<Layer> runs, Layer current, Layer previous, GameLayout layout) throws IOException {
+        int keyWords = layout.getKeyWords();
+        byte[] offsets = new byte[layout.getPieceCount()];
+        PriorityQueue<KeyReader> heap = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> KEY_ORDER.compare(a.key, b.key));
+        List<KeyReader> readers = new ArrayList<>();
+        long[] last = null;
+        long size = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_BYTES));
+             KeyReader inCurrent = current == null ? null : new KeyReader(current, keyWords);
+             KeyReader inPrevious = previous == null ? null : new KeyReader(previous, keyWords)) {
+            for (Layer run : runs) {
+                KeyReader reader = new KeyReader(run, keyWords);
+                readers.add(reader);
+                if (reader.advance()) heap.add(reader);
+            }
+            if (inCurrent != null) inCurrent.advance();
+            if (inPrevious != null) inPrevious.advance();
+
+            while (!heap.isEmpty()) {
+                KeyReader reader = heap.poll();
+                long[] key = reader.key.clone();
+                if (reader.advance()) heap.add(reader);
+
+                if ((last != null && Arrays.equals(last, key)) || (inCurrent != null && inCurrent.skipTo(key))
+                        || (inPrevious != null && inPrevious.skipTo(key))) {
+                    metrics.duplicate();
+                    continue;
+                }
+                last = key;
+                for (long word : key) {
+                    out.writeLong(word);
+                }
+                size++;
+
+                if (current == null) continue;
+                layout.unpackKey(key, offsets);
+                if (layout.isGoal(offsets[layout.getPrimaryIndex()])) {
+                    return new Merged(new Layer(file, size), key);
+                }
+            }
+        } finally {
+            for (KeyReader reader : readers) {
+                reader.close();
+            }
+        }
+        return new Merged(new Layer(file, size), null);
+    }
+
+    // Walks back one layer at a time to a neighbour of the next state, then replays the moves forward
+    private List<GameState> reconstruct(GameState initialState, List<Layer> layers, long[] goal) throws IOException {
+        GameLayout layout = initialState.getLayout();
+        int keyWords = layout.getKeyWords();
+        byte[] offsets = new byte[layout.getPieceCount()];
+        long[][] chain = new long[layers.size()][];
+        chain[layers.size() - 1] = goal;
+
+        for (int depth = layers.size() - 2; depth > 0; depth--) {
+            layout.unpackKey(chain[depth + 1], offsets);
+            GameState state = GameState.of(layout, offsets, null);
+            List<long[]> neighbours = new ArrayList<>();
+            for (int i = 0; i < offsets.length; i++) {
+                for (int dir = -1; dir <= 1; dir += 2) {
+                    if (!state.canMove(i, dir)) continue;
+                    long[] key = chain[depth + 1].clone();
+                    layout.adjustKey(key, i, dir);
+                    neighbours.add(key);
+                }
+            }
+            neighbours.sort(KEY_ORDER);
+
+            try (KeyReader reader = new KeyReader(layers.get(depth), keyWords)) {
+                reader.advance();
+                for (long[] neighbour : neighbours) {
+                    if (reader.skipTo(neighbour)) {
+                        chain[depth] = neighbour;
+                        break;
+                    }
+                }
+            }
+            if (chain[depth] == null) {
+                throw new IllegalStateException("Layer " + depth + " holds no predecessor of the path");
+            }
+        }
+
+        GameState current = initialState;
+        long[] key = new long[keyWords];
+        for (int depth = 1; depth < chain.length; depth++) {
+            current.packKey(key);
+            current = step(current, key, chain[depth]);
+        }
+        nodesExplored += StandardSearch.exitNodes(current);
+        return StandardSearch.reconstructPath(current.lastMove());
+    }
+
+    private static GameState step(GameState state, long[] key, long[] target) {
+        GameLayout layout = state.getLayout();
+        for (int i = 0; i < layout.getPieceCount(); i++) {
+            for (int dir = -1; dir <= 1; dir += 2) {
+                if (!state.canMove(i, dir)) continue;
+                layout.adjustKey(key, i, dir);
+                boolean match = Arrays.equals(key, target);
+                layout.adjustKey(key, i, -dir);
+                if (match) return state.move(i, dir);
+            }
+        }
+        throw new IllegalStateException("Consecutive path states are not one move apart");
+    }
+
+    // Whatever cannot be removed now is left to the JVM's exit; the result of the search does not depend on it
+    private static void deleteAll(Path work) {
+        List<Path> left = new ArrayList<>();
+        try (Stream<Path> files = Files.list(work)) {
+            for (Path file : files.toList()) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    left.add(file);
+                }
+            }
+            Files.deleteIfExists(work);
+        } catch (IOException e) {
+            // Deletion on exit runs in reverse order of registration, so the directory is removed last
+            work.toFile().deleteOnExit();
+            for (Path file : left) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    // Sequential cursor over a key file; key holds the current key while advance() returns true
+    private static final class KeyReader implements Closeable {
+        private final DataInputStream in;
+        private long remaining;
+        private boolean valid;
+        final long[] key;
+
+        KeyReader(Layer layer, int keyWords) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(layer.file()), IO_BUFFER_BYTES));
+            this.remaining = layer.size();
+            this.key = new long[keyWords];
+        }
+
+        boolean advance() throws IOException {
+            valid = remaining > 0;
+            if (!valid) return false;
+            for (int w = 0; w < key.length; w++) {
+                key[w] = in.readLong();
+            }
+            remaining--;
+            return true;
+        }
+
+        // Moves forward past smaller keys; true when the cursor then sits on target
+        boolean skipTo(long[] target) throws IOException {
+            while (valid && KEY_ORDER.compare(key, target) < 0) {
+                advance();
+            }
+            return valid && Arrays.equals(key, target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
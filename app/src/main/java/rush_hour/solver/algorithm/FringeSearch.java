@@ -0,0 +1,180 @@
+package rush_hour.solver.algorithm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.StateTable;
+
+/**
+ * Fringe search: IDA*'s thresholds without its repeated work. The fringe is
+ * one linked list holding both the "now" and the "later" nodes. An iteration
+ * walks it once: a node above the threshold stays in place for the next
+ * iteration, and a node within it is replaced by its children, which are
+ * inserted right after it and so are visited later in the same pass. The
+ * threshold then rises to the smallest f that was left waiting. Every state
+ * is expanded about once, and the list is never sorted.
+ *
+ * Seen states keep a slot with their best state (and so their g and path)
+ * and cached heuristic. A state reached again with a lower g is re-inserted,
+ * so the first goal expanded is optimal with an admissible heuristic.
+ */
+public class FringeSearch implements SearchAlgorithm {
+    private static final int NONE = -1;
+
+    private final HeuristicFunction heuristic;
+    private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+
+    // Slots: the best state for each seen configuration, its heuristic and its links in the fringe
+    private GameState[] states;
+    private int[] heuristics;
+    private int[] next, prev;
+    private boolean[] listed;
+    private int slots;
+    private int head;
+    private int length;
+
+    public FringeSearch(HeuristicFunction heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        GameLayout layout = initialState.getLayout();
+        StateTable seen = new StateTable(layout);
+        long[] key = new long[layout.getKeyWords()];
+        long stateBytes = SearchBudget.stateBytes(layout) + 17; // Plus the slot's entries in the parallel arrays
+        nodesExplored = 0;
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
+        allocate(1 << 12);
+
+        int root = newSlot(initialState, metrics.evaluate(heuristic, initialState));
+        seen.put(initialState, root);
+        insertAfter(NONE, root);
+        int threshold = initialState.getCost() + heuristics[root];
+
+        try {
+            while (length > 0) {
+                int nextThreshold = Integer.MAX_VALUE;
+                int node = head;
+                while (node != NONE) {
+                    GameState state = states[node];
+                    int f = state.getCost() + heuristics[node];
+                    if (f > threshold) {
+                        nextThreshold = Math.min(nextThreshold, f); // Later: wait for the next iteration
+                        node = next[node];
+                        continue;
+                    }
+
+                    if (budget.exhausted(nodesExplored, length, seen.sizeInBytes() + slots * stateBytes)) {
+                        return Collections.emptyList();
+                    }
+                    nodesExplored++;
+                    metrics.expanded(length, slots);
+                    if (state.isGoal()) {
+                        nodesExplored += StandardSearch.exitNodes(state);
+                        return StandardSearch.reconstructPath(state.lastMove());
+                    }
+
+                    // Now: children go right after this node so the same pass reaches them
+                    int last = node;
+                    state.packKey(key);
+                    for (int i = 0; i < layout.getPieceCount(); i++) {
+                        for (int dir = -1; dir <= 1; dir += 2) {
+                            if (!state.canMove(i, dir)) continue;
+                            metrics.generated(1);
+                            layout.adjustKey(key, i, dir);
+                            int slot = seen.getKey(key, NONE);
+                            layout.adjustKey(key, i, -dir);
+                            if (slot != NONE && states[slot].getCost() <= state.getCost() + 1) {
+                                metrics.duplicate();
+                                continue;
+                            }
+
+                            GameState child = state.move(i, dir);
+                            if (slot == NONE) {
+                                slot = newSlot(child, metrics.evaluate(heuristic, child));
+                                seen.put(child, slot);
+                            } else {
+                                states[slot] = child; // Cheaper path to a known state; its heuristic is unchanged
+                                if (listed[slot]) unlink(slot);
+                            }
+                            insertAfter(last, slot);
+                            last = slot;
+                        }
+                    }
+
+                    int following = next[node];
+                    unlink(node);
+                    node = following;
+                }
+                threshold = nextThreshold;
+            }
+            return Collections.emptyList();
+        } finally {
+            metrics.retained(seen.sizeInBytes() + slots * stateBytes, slots);
+            metrics.finish();
+            states = null;
+        }
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void allocate(int capacity) {
+        states = new GameState[capacity];
+        heuristics = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        listed = new boolean[capacity];
+        slots = 0;
+        head = NONE;
+        length = 0;
+    }
+
+    private int newSlot(GameState state, int h) {
+        if (slots == states.length) {
+            int capacity = slots * 2;
+            states = Arrays.copyOf(states, capacity);
+            heuristics = Arrays.copyOf(heuristics, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            listed = Arrays.copyOf(listed, capacity);
+        }
+        states[slots] = state;
+        heuristics[slots] = h;
+        return slots++;
+    }
+
+    // Inserts slot after the given one, or at the head for NONE
+    private void insertAfter(int after, int slot) {
+        int following = after == NONE ? head : next[after];
+        prev[slot] = after;
+        next[slot] = following;
+        if (following != NONE) prev[following] = slot;
+        if (after == NONE) head = slot; else next[after] = slot;
+        listed[slot] = true;
+        length++;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NONE) head = next[slot]; else next[prev[slot]] = next[slot];
+        if (next[slot] != NONE) prev[next[slot]] = prev[slot];
+        listed[slot] = false;
+        length--;
+    }
+}
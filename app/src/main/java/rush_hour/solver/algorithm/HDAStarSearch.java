@@ -0,0 +1,291 @@
+package rush_hour.solver.algorithm;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import rush_hour.model.GameState;
+import rush_hour.solver.frontier.BucketFrontier;
+import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.StateTable;
+
+/**
+ * Hash-distributed A*: every state is owned by the worker its hash maps to.
+ * Each worker keeps its own open list and best-g table and forwards generated
+ * children to their owner through a lock-free mailbox.
+ *
+ * Termination uses a single counter of outstanding work: one unit per active
+ * worker plus one per message in flight. It reaches zero only when every
+ * worker has run out of states that could still beat the incumbent and no
+ * message is pending, at which point the incumbent is optimal.
+ */
+public class HDAStarSearch implements SearchAlgorithm {
+    private final HeuristicFunction heuristic;
+    private final int threads;
+    private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+
+    public HDAStarSearch(HeuristicFunction heuristic) {
+        this(heuristic, Runtime.getRuntime().availableProcessors());
+    }
+
+    public HDAStarSearch(HeuristicFunction heuristic, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.heuristic = heuristic;
+        this.threads = threads;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
+        Search search = new Search(initialState, budget);
+        GameState goal = search.run();
+
+        long total = 0;
+        for (Worker worker : search.workers) {
+            total += worker.expanded;
+            worker.metrics.retained(worker.bestCost.sizeInBytes() + worker.bestCost.size() * search.stateBytes, worker.bestCost.size());
+            metrics.merge(worker.metrics);
+        }
+        metrics.finish();
+        // An incumbent found before the budget ran out is not proven optimal
+        if (goal == null || budget.isStopped()) {
+            nodesExplored = (int) Math.min(Integer.MAX_VALUE, total);
+            return Collections.emptyList();
+        }
+
+        GameState lastState = goal.lastMove();
+        total += StandardSearch.exitNodes(goal);
+        nodesExplored = (int) Math.min(Integer.MAX_VALUE, total);
+        return StandardSearch.reconstructPath(lastState);
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Nodes expanded by each worker during the last solve
+    public long[] getWorkerNodeCounts() {
+        return metrics.getWorkerExpanded();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    private class Search {
+        final Worker[] workers = new Worker[threads];
+        final AtomicLong pending = new AtomicLong();
+        final AtomicLong expandedTotal = new AtomicLong(); // Updated in batches, for the node budget
+        final SearchBudget budget;
+        final long stateBytes;
+        final AtomicReference<GameState> incumbent = new AtomicReference<>();
+        volatile int incumbentCost = Integer.MAX_VALUE; // Path length including the exit move
+        volatile boolean done = false;
+        volatile Throwable failure;
+
+        Search(GameState initialState, SearchBudget budget) {
+            this.budget = budget;
+            this.stateBytes = SearchBudget.stateBytes(initialState.getLayout());
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Worker(this, i, initialState);
+            }
+            initialState.setHeuristic(metrics.evaluate(heuristic, initialState));
+            send(initialState);
+        }
+
+        GameState run() {
+            Thread[] pool = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                pool[i] = new Thread(workers[i], "hda-worker-" + i);
+                pool[i].setDaemon(true);
+                pool[i].start();
+            }
+            try {
+                // The workers' own counters are only read once they stop, so sample the shared total meanwhile
+                for (Thread thread : pool) {
+                    while (thread.isAlive()) {
+                        thread.join(100);
+                        metrics.sample(expandedTotal.get(), pending.get(), 0);
+                    }
+                }
+            } catch (InterruptedException e) {
+                budget.stop(SearchBudget.StopReason.CANCELLED);
+                Thread.currentThread().interrupt();
+            } finally {
+                // Workers must have stopped before their counters and tables are read
+                done = true;
+                awaitAll(pool);
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Parallel search failed", failure);
+            }
+            return incumbent.get();
+        }
+
+        private void awaitAll(Thread[] pool) {
+            boolean interrupted = false;
+            for (Thread thread : pool) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void send(GameState state) {
+            pending.incrementAndGet();
+            workers[owner(state)].mailbox.offer(state);
+        }
+
+        int owner(GameState state) {
+            int h = state.hashCode() * 0x9E3779B9;
+            return Integer.remainderUnsigned(h ^ (h >>> 16), threads);
+        }
+
+        synchronized void offerSolution(GameState goal) {
+            int cost = goal.getCost() + 1;
+            if (cost < incumbentCost) {
+                incumbent.set(goal);
+                incumbentCost = cost;
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        final Search search;
+        final int index;
+        final ConcurrentLinkedQueue<GameState> mailbox = new ConcurrentLinkedQueue<>();
+        final BucketFrontier open = new BucketFrontier(GameState::getTotalCost, GameState::getHeuristic, false);
+        final StateTable bestCost;
+        final SearchMetrics metrics = new SearchMetrics();
+        long expanded = 0;
+        long budgetChecks = 0; // This worker's own count; the budget's is not shared safely
+        boolean active = false;
+
+        Worker(Search search, int index, GameState initialState) {
+            this.search = search;
+            this.index = index;
+            this.bestCost = new StateTable(initialState.getLayout());
+        }
+
+        @Override
+        public void run() {
+            metrics.start();
+            try {
+                loop();
+            } catch (Throwable t) {
+                search.failure = t;
+                search.done = true;
+            }
+        }
+
+        private void loop() {
+            int idleSpins = 0;
+            while (!search.done) {
+                GameState received;
+                while ((received = mailbox.poll()) != null) {
+                    // The message's unit of work becomes ours if we were idle, otherwise it is released
+                    if (active) {
+                        search.pending.decrementAndGet();
+                    } else {
+                        active = true;
+                    }
+                    if (received.getCost() < bestCost.get(received, Integer.MAX_VALUE)) {
+                        bestCost.put(received, received.getCost());
+                        open.add(received);
+                    } else {
+                        metrics.duplicate();
+                    }
+                }
+
+                if (active) {
+                    idleSpins = 0;
+                    if (!expandNext()) {
+                        active = false;
+                        if (search.pending.decrementAndGet() == 0) {
+                            search.done = true;
+                        }
+                    }
+                } else if (search.pending.get() == 0) {
+                    search.done = true;
+                } else if (++idleSpins < 64) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(20_000);
+                }
+            }
+        }
+
+        // Expands one state; returns false once nothing left can beat the incumbent
+        private boolean expandNext() {
+            while (!open.isEmpty()) {
+                GameState current = open.poll();
+                if (current.getTotalCost() >= search.incumbentCost) {
+                    while (!open.isEmpty()) open.poll();
+                    return false;
+                }
+                if (current.getCost() > bestCost.get(current, Integer.MAX_VALUE)) {
+                    metrics.duplicate();
+                    continue; // A cheaper path to this state arrived after it was queued
+                }
+
+                // Every worker holds about as much as this one, so scale its footprint by the thread count
+                long heapBytes = (bestCost.sizeInBytes() + (bestCost.size() + open.size()) * search.stateBytes) * threads;
+                boolean slowChecksDue = ++budgetChecks % SearchBudget.CHECK_INTERVAL == 0;
+                if (search.budget.exhausted(search.expandedTotal.get(), open.size(), heapBytes, slowChecksDue)) {
+                    search.done = true;
+                    return false;
+                }
+                if (++expanded % 256 == 0) {
+                    search.expandedTotal.addAndGet(256);
+                }
+                metrics.expanded(open.size(), bestCost.size());
+                if (current.isGoal()) {
+                    search.offerSolution(current);
+                    return true;
+                }
+
+                List<GameState> successors = current.generateSuccessors();
+                metrics.generated(successors.size());
+                for (GameState neighbor : successors) {
+                    neighbor.setHeuristic(metrics.evaluate(heuristic, neighbor));
+                    if (neighbor.getTotalCost() >= search.incumbentCost) continue;
+
+                    if (search.owner(neighbor) == index) {
+                        if (neighbor.getCost() < bestCost.get(neighbor, Integer.MAX_VALUE)) {
+                            bestCost.put(neighbor, neighbor.getCost());
+                            open.add(neighbor);
+                        } else {
+                            metrics.duplicate();
+                        }
+                    } else {
+                        search.send(neighbor);
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
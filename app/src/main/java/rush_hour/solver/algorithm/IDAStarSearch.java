@@ -2,71 +2,111 @@ package rush_hour.solver.algorithm;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import rush_hour.model.GameState;
 import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.TranspositionTable;
 
 public class IDAStarSearch implements SearchAlgorithm {
+    private static final int DEFAULT_TABLE_MEGABYTES = 64;
+
     private final HeuristicFunction heuristic;
+    private final int tableMegabytes;
+    private final TranspositionTable.Replacement replacement;
     private int nodesExplored = 0;
-    private Map<String, Integer> visited; // String board, Integer cost
+    private TranspositionTable table; // Shared by all iterations of one solve
+    private SearchBudget budget;
+    private long stateBytes;
+    private SearchMetrics metrics = new SearchMetrics();
 
     public IDAStarSearch(HeuristicFunction heuristic) {
+        this(heuristic, DEFAULT_TABLE_MEGABYTES, TranspositionTable.Replacement.TWO_TIER);
+    }
+
+    public IDAStarSearch(HeuristicFunction heuristic, int tableMegabytes, TranspositionTable.Replacement replacement) {
+        if (tableMegabytes < 1) {
+            throw new IllegalArgumentException("Transposition table size must be at least 1 MB");
+        }
         this.heuristic = heuristic;
+        this.tableMegabytes = tableMegabytes;
+        this.replacement = replacement;
     }
 
     @Override
-    public List<GameState> solve(GameState initialState) {
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
         nodesExplored = 0;
-        int threshold = heuristic.calculate(initialState);
+        this.budget = budget;
+        this.stateBytes = SearchBudget.stateBytes(initialState.getLayout());
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
+        int threshold = metrics.evaluate(heuristic, initialState);
+        table = new TranspositionTable(initialState.getLayout(), tableMegabytes, replacement);
         
-        while (true) {
-            visited = new HashMap<>();
-            List<GameState> initialPath = new ArrayList<>();
-            initialPath.add(initialState);
-            Result result = search(initialState, threshold, initialPath);
-            
-            if (result.found) {
-                return result.path;
-            }
-            
-            if (result.nextThreshold == Integer.MAX_VALUE) {
-                return Collections.emptyList();
+        try {
+            while (true) {
+                table.newIteration();
+                List<GameState> initialPath = new ArrayList<>();
+                initialPath.add(initialState);
+                Result result = search(initialState, threshold, initialPath);
+                
+                if (result.found) {
+                    return result.path;
+                }
+                
+                if (result.nextThreshold == Integer.MAX_VALUE || budget.isStopped()) {
+                    return Collections.emptyList();
+                }
+                
+                threshold = result.nextThreshold;
             }
-            
-            threshold = result.nextThreshold;
+        } finally {
+            // Open is the current path; the closed set is the fixed-size table
+            metrics.retained(table.sizeInBytes(), table.capacity());
+            metrics.finish();
+            table = null;
         }
     }
 
     private Result search(GameState state, int threshold, List<GameState> path) {
+        if (budget.exhausted(nodesExplored, path.size(), table.sizeInBytes() + path.size() * stateBytes)) {
+            return new Result(false, null, Integer.MAX_VALUE);
+        }
         nodesExplored++;
         
-        int f = state.getCost() + heuristic.calculate(state);
+        // Bounds learned by earlier iterations tighten the static estimate
+        int bound = table.getBound(state);
+        if (bound == Integer.MAX_VALUE) {
+            metrics.duplicate();
+            return new Result(false, null, Integer.MAX_VALUE);
+        }
+        int h = Math.max(metrics.evaluate(heuristic, state), bound);
+        int f = state.getCost() + h;
         
         if (f > threshold) {
             return new Result(false, null, f);
         }
         
-        String boardKey = state.getBoard().toString();
-        Integer previousCost = visited.get(boardKey);
-        if (previousCost != null && previousCost <= state.getCost()) {
+        if (table.getCost(state) <= state.getCost()) {
+            metrics.duplicate();
             return new Result(false, null, threshold + 1);
         }
-        visited.put(boardKey, state.getCost());
+        table.store(state, state.getCost(), h);
+        metrics.expanded(path.size(), 0);
         
         if (state.isGoal()) {
             GameState lastState = state.lastMove();
             path.add(lastState);
-            nodesExplored += state.getPrimaryPiece().getPositions().size();
+            nodesExplored += StandardSearch.exitNodes(state);
             return new Result(true, path, threshold);
         }
         
         // Recursive DFS
         int nextThreshold = Integer.MAX_VALUE;
         List<GameState> successors = state.generateSuccessors();
+        metrics.generated(successors.size());
         
         for (GameState successor : successors) {
             path.add(successor);
@@ -77,9 +117,19 @@ public class IDAStarSearch implements SearchAlgorithm {
             }
             
             path.remove(path.size() - 1);
+            if (budget.isStopped()) {
+                return result; // Unwind without recording bounds from an unfinished subtree
+            }
             nextThreshold = Math.min(nextThreshold, result.nextThreshold);
         }
         
+        // Nothing below this state reaches the goal within the threshold
+        if (nextThreshold == Integer.MAX_VALUE) {
+            table.store(state, state.getCost(), Integer.MAX_VALUE);
+        } else {
+            table.store(state, state.getCost(), Math.max(h, nextThreshold - state.getCost()));
+        }
+        
         return new Result(false, null, nextThreshold);
     }
 
@@ -87,6 +137,11 @@ public class IDAStarSearch implements SearchAlgorithm {
     public int getNodesExplored() {
         return nodesExplored;
     }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
     
     private static class Result {
         final boolean found;
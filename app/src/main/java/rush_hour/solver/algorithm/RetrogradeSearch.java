@@ -0,0 +1,134 @@
+package rush_hour.solver.algorithm;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.RetrogradeTable;
+
+/**
+ * Solves by walking an exact distance table: from each state, step to any
+ * successor exactly one move closer to the goal. The first puzzle of a
+ * layout pays for enumerating its state space; every later variant of the
+ * same layout, and every state along the way, is a table lookup. Tables
+ * of recently used layouts are kept across solver instances, up to
+ * CACHED_BYTES in total. A layout with more than stateLimit reachable
+ * configurations in one component is given up on with MEMORY_LIMIT.
+ */
+public class RetrogradeSearch implements SearchAlgorithm {
+    private static final int DEFAULT_STATE_LIMIT = 1 << 24;
+    private static final long CACHED_BYTES = 512L << 20;
+
+    // Least recently used first
+    private static final Map<GameLayout, RetrogradeTable> TABLES = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int stateLimit;
+    private int nodesExplored = 0;
+    private int tableSize = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+
+    public RetrogradeSearch() {
+        this(DEFAULT_STATE_LIMIT);
+    }
+
+    public RetrogradeSearch(int stateLimit) {
+        if (stateLimit < 1) {
+            throw new IllegalArgumentException("State limit must be positive");
+        }
+        this.stateLimit = stateLimit;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        metrics = new SearchMetrics();
+        metrics.start();
+        try {
+            return walk(initialState, budget);
+        } finally {
+            // The table is the closed set: one packed key and one distance per configuration
+            metrics.retained(tableSize * (8L * initialState.getLayout().getKeyWords() + 4), tableSize);
+            metrics.finish();
+        }
+    }
+
+    private List<GameState> walk(GameState initialState, SearchBudget budget) {
+        nodesExplored = 0;
+        budget.start();
+        RetrogradeTable table = tableFor(initialState.getLayout());
+        int remaining = table.distance(initialState, budget);
+        tableSize = table.size();
+        trimTables();
+
+        if (remaining == RetrogradeTable.ABORTED) {
+            return Collections.emptyList();
+        }
+        if (remaining == RetrogradeTable.UNSOLVABLE) {
+            nodesExplored = 1;
+            return Collections.emptyList();
+        }
+
+        GameState current = initialState;
+        while (remaining > 0) {
+            nodesExplored++;
+            metrics.expanded(1, tableSize);
+            List<GameState> successors = current.generateSuccessors();
+            metrics.generated(successors.size());
+            GameState next = null;
+            for (GameState neighbor : successors) {
+                if (table.distance(neighbor) == remaining - 1) {
+                    next = neighbor;
+                    break;
+                }
+            }
+            if (next == null) {
+                throw new IllegalStateException("Distance table is inconsistent at " + current.getMoveDescription());
+            }
+            current = next;
+            remaining--;
+        }
+
+        nodesExplored += 1 + StandardSearch.exitNodes(current); // The goal itself, then the exit
+        return StandardSearch.reconstructPath(current.lastMove());
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Configurations in the table used by the last solve
+    public int getTableSize() {
+        return tableSize;
+    }
+
+    private RetrogradeTable tableFor(GameLayout layout) {
+        synchronized (TABLES) {
+            return TABLES.computeIfAbsent(layout, l -> new RetrogradeTable(l, stateLimit));
+        }
+    }
+
+    // Tables grow after they are cached, so the bound is enforced once a lookup has finished
+    private static void trimTables() {
+        synchronized (TABLES) {
+            long total = 0;
+            for (RetrogradeTable table : TABLES.values()) {
+                total += table.sizeInBytes();
+            }
+            Iterator<RetrogradeTable> eldest = TABLES.values().iterator();
+            while (total > CACHED_BYTES && eldest.hasNext()) {
+                total -= eldest.next().sizeInBytes();
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package rush_hour.solver.algorithm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.StateTable;
+
+/**
+ * Simplified memory-bounded A* (SMA*). At most maxNodes search nodes are
+ * resident. Successors are generated one at a time, lowest f first, with f
+ * made monotone along each path. When the cap is reached the shallowest leaf
+ * with the highest f is forgotten and its f is remembered by its parent, so
+ * the subtree is only regenerated once everything cheaper has been tried.
+ * Fully generated nodes back the minimum f of their children up to their
+ * ancestors.
+ *
+ * A successor whose state is already resident at no greater depth is pruned,
+ * which removes cycles and most transpositions. Paths longer than the cap
+ * cannot be held; when that is all that is left the search stops with
+ * MEMORY_LIMIT instead of reporting the puzzle unsolvable. With an admissible
+ * heuristic a returned path is optimal.
+ */
+public class SMAStarSearch implements SearchAlgorithm {
+    public static final String NODES_PROPERTY = "rush_hour.sma.nodes";
+
+    private static final int DEFAULT_MAX_NODES = 1 << 20;
+    private static final int UNKNOWN = 0; // childF of a successor never generated; real f values are at least 1
+    private static final int INFINITE = Integer.MAX_VALUE;
+    private static final int NODE_BYTES = 96; // Node object and its per-successor arrays, roughly
+
+    // Cheapest f first and deepest among equals; the last element is the leaf to forget
+    private static final Comparator<Node> ORDER = Comparator.<Node>comparingInt(node -> node.f)
+        .thenComparingInt(node -> -node.depth)
+        .thenComparingLong(node -> node.id);
+
+    private final HeuristicFunction heuristic;
+    private final int maxNodes;
+    private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
+
+    private TreeSet<Node> open;   // Nodes with a successor that is not resident
+    private TreeSet<Node> leaves; // Resident nodes without resident children
+    private StateTable depths;    // Depth of the resident copy of each state
+    private int resident;
+    private long nextId;
+    private boolean cut;          // A path was dropped because it could not fit in memory
+
+    private static final class Node {
+        final GameState state;
+        final Node parent;
+        final int slot; // Index among the parent's successors
+        final int depth;
+        final long id;
+        int f;
+        int[] moves;    // Piece index * 2, plus 1 for a forward slide; filled on first expansion
+        Node[] children;
+        int[] childF;
+        int residentChildren;
+
+        Node(GameState state, Node parent, int slot, int depth, long id, int f) {
+            this.state = state;
+            this.parent = parent;
+            this.slot = slot;
+            this.depth = depth;
+            this.id = id;
+            this.f = f;
+        }
+    }
+
+    public SMAStarSearch(HeuristicFunction heuristic) {
+        this(heuristic, Integer.getInteger(NODES_PROPERTY, DEFAULT_MAX_NODES));
+    }
+
+    public SMAStarSearch(HeuristicFunction heuristic, int maxNodes) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("SMA* needs room for at least 2 nodes");
+        }
+        this.heuristic = heuristic;
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        GameLayout layout = initialState.getLayout();
+        long nodeBytes = SearchBudget.stateBytes(layout) + NODE_BYTES;
+        open = new TreeSet<>(ORDER);
+        leaves = new TreeSet<>(ORDER);
+        depths = new StateTable(layout);
+        resident = 1;
+        nextId = 0;
+        cut = false;
+        nodesExplored = 0;
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
+
+        Node root = new Node(initialState, null, -1, 0, nextId++, metrics.evaluate(heuristic, initialState));
+        open.add(root);
+        leaves.add(root);
+        depths.put(initialState, 0);
+
+        try {
+            while (true) {
+                if (budget.exhausted(nodesExplored, open.size(), depths.sizeInBytes() + resident * nodeBytes)) {
+                    return Collections.emptyList();
+                }
+                if (open.isEmpty() || open.first().f == INFINITE) {
+                    if (cut) budget.stop(SearchBudget.StopReason.MEMORY_LIMIT);
+                    return Collections.emptyList();
+                }
+
+                Node best = open.first();
+                if (best.state.isGoal()) {
+                    nodesExplored += StandardSearch.exitNodes(best.state);
+                    return StandardSearch.reconstructPath(best.state.lastMove());
+                }
+                nodesExplored++;
+                metrics.expanded(open.size(), resident);
+
+                if (best.moves == null) {
+                    initMoves(best, layout);
+                }
+                int slot = nextSlot(best);
+                if (slot >= 0) {
+                    generate(best, slot);
+                }
+                if (!hasMissingChild(best)) {
+                    open.remove(best);
+                }
+                backUp(best);
+            }
+        } finally {
+            metrics.retained(depths.sizeInBytes() + resident * nodeBytes, resident);
+            metrics.finish();
+            open = null;
+            leaves = null;
+            depths = null;
+        }
+    }
+
+    @Override
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static void initMoves(Node node, GameLayout layout) {
+        int count = 0;
+        int[] moves = new int[2 * layout.getPieceCount()];
+        for (int i = 0; i < layout.getPieceCount(); i++) {
+            if (node.state.canMove(i, -1)) moves[count++] = 2 * i;
+            if (node.state.canMove(i, 1)) moves[count++] = 2 * i + 1;
+        }
+        node.moves = Arrays.copyOf(moves, count);
+        node.children = new Node[count];
+        node.childF = new int[count];
+    }
+
+    // A successor never generated comes first, then the forgotten one with the lowest remembered f
+    private static int nextSlot(Node node) {
+        int slot = -1;
+        for (int i = 0; i < node.moves.length; i++) {
+            if (node.children[i] != null || node.childF[i] == INFINITE) continue;
+            if (node.childF[i] == UNKNOWN) return i;
+            if (slot < 0 || node.childF[i] < node.childF[slot]) slot = i;
+        }
+        return slot;
+    }
+
+    private static boolean hasMissingChild(Node node) {
+        for (int i = 0; i < node.moves.length; i++) {
+            if (node.children[i] == null && node.childF[i] != INFINITE) return true;
+        }
+        return false;
+    }
+
+    private void generate(Node parent, int slot) {
+        int move = parent.moves[slot];
+        GameState state = parent.state.move(move >> 1, (move & 1) == 1 ? 1 : -1);
+        int depth = parent.depth + 1;
+        metrics.generated(1);
+
+        if (depths.get(state, INFINITE) <= depth) {
+            metrics.duplicate();
+            parent.childF[slot] = INFINITE;
+            return;
+        }
+        if (depth >= maxNodes - 1 && !state.isGoal()) {
+            cut = true; // Its children could never be held alongside the path to it
+            parent.childF[slot] = INFINITE;
+            return;
+        }
+
+        int remembered = parent.childF[slot];
+        int f = Math.max(parent.f, remembered != UNKNOWN ? remembered : depth + metrics.evaluate(heuristic, state));
+        Node child = new Node(state, parent, slot, depth, nextId++, f);
+        parent.children[slot] = child;
+        parent.childF[slot] = f;
+        if (parent.residentChildren++ == 0) {
+            leaves.remove(parent);
+        }
+        depths.put(state, depth);
+        resident++;
+
+        while (resident > maxNodes) {
+            forget(leaves.last());
+        }
+        open.add(child);
+        leaves.add(child);
+    }
+
+    // Drops a leaf; its parent remembers the f and goes back on the open list to regenerate it later
+    private void forget(Node leaf) {
+        open.remove(leaf);
+        leaves.remove(leaf);
+        Node parent = leaf.parent;
+        parent.children[leaf.slot] = null;
+        parent.childF[leaf.slot] = leaf.f;
+        if (depths.get(leaf.state, INFINITE) == leaf.depth) {
+            depths.put(leaf.state, INFINITE);
+        }
+        resident--;
+
+        if (--parent.residentChildren == 0) {
+            leaves.add(parent);
+        }
+        if (leaf.f != INFINITE) {
+            open.add(parent);
+        }
+    }
+
+    // Once every successor has an f, a node's f is their minimum; changes propagate to the ancestors
+    private void backUp(Node node) {
+        while (node != null) {
+            int f = INFINITE;
+            for (int i = 0; i < node.moves.length; i++) {
+                int childF = node.children[i] != null ? node.children[i].f : node.childF[i];
+                if (childF == UNKNOWN) return;
+                f = Math.min(f, childF);
+            }
+            if (f == node.f) return;
+            setF(node, f);
+            if (node.parent != null && node.parent.children[node.slot] == node) {
+                node.parent.childF[node.slot] = f;
+            }
+            node = node.parent;
+        }
+    }
+
+    // Sorted sets must not see a key change in place
+    private void setF(Node node, int f) {
+        boolean inOpen = open.remove(node);
+        boolean isLeaf = leaves.remove(node);
+        node.f = f;
+        if (inOpen) open.add(node);
+        if (isLeaf) leaves.add(node);
+    }
+}
@@ -1,9 +1,18 @@
 package rush_hour.solver.algorithm;
 
 import rush_hour.model.GameState;
+import rush_hour.solver.metrics.SearchMetrics;
 import java.util.List;
 
 public interface SearchAlgorithm {
-    List<GameState> solve(GameState initialState);
+    // Returns an empty path if the puzzle is unsolvable or the budget ran out; the budget tells which
+    List<GameState> solve(GameState initialState, SearchBudget budget);
     int getNodesExplored();
-}
\ No newline at end of file
+
+    // Detailed counters of the last solve
+    SearchMetrics getMetrics();
+
+    default List<GameState> solve(GameState initialState) {
+        return solve(initialState, SearchBudget.unlimited());
+    }
+}
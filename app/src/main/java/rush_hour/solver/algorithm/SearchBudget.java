@@ -0,0 +1,100 @@
+package rush_hour.solver.algorithm;
+
+import rush_hour.model.GameLayout;
+
+/**
+ * Limits for one solve plus a cancellation flag. Searches call exhausted()
+ * once per expanded node; node and frontier limits are compared on every
+ * call, while the clock and the memory estimate are only consulted every
+ * CHECK_INTERVAL calls. Once a limit trips the reason sticks and every later
+ * call returns true, so nested loops unwind without further checks.
+ *
+ * A limit of zero or less means unlimited. The wall-clock limit counts from
+ * the first start() call, not from construction.
+ *
+ * The three-argument exhausted() keeps its call count in the budget and is
+ * for a single searching thread. Threads sharing one budget count their own
+ * calls and use the four-argument form, which is thread-safe, as are
+ * cancel(), stop() and the getters.
+ */
+public class SearchBudget {
+    public enum StopReason {
+        CANCELLED, TIME_LIMIT, NODE_LIMIT, FRONTIER_LIMIT, MEMORY_LIMIT
+    }
+
+    public static final int CHECK_INTERVAL = 1024;
+
+    private final long timeLimitMillis;
+    private final long maxNodes;
+    private final long maxFrontier;
+    private final long maxBytes;
+    private volatile boolean cancelled = false;
+    private volatile StopReason stopReason;
+    private volatile long deadline = Long.MAX_VALUE;
+    private int calls = 0;
+
+    public SearchBudget(long timeLimitMillis, long maxNodes, long maxFrontier, long maxBytes) {
+        this.timeLimitMillis = timeLimitMillis;
+        this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        this.maxFrontier = maxFrontier > 0 ? maxFrontier : Long.MAX_VALUE;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+    }
+
+    // Only cancellation can stop this one
+    public static SearchBudget unlimited() {
+        return new SearchBudget(0, 0, 0, 0);
+    }
+
+    public synchronized void start() {
+        if (timeLimitMillis > 0 && deadline == Long.MAX_VALUE) {
+            deadline = System.nanoTime() + timeLimitMillis * 1_000_000;
+        }
+    }
+
+    // Safe to call from any thread, e.g. a UI button while the search runs
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean exhausted(long nodes, long frontier, long heapBytes) {
+        return exhausted(nodes, frontier, heapBytes, ++calls % CHECK_INTERVAL == 0);
+    }
+
+    // slowChecksDue: the caller's own count of calls has reached a multiple of CHECK_INTERVAL
+    public boolean exhausted(long nodes, long frontier, long heapBytes, boolean slowChecksDue) {
+        if (stopReason != null) return true;
+        if (cancelled) return stop(StopReason.CANCELLED);
+        if (nodes > maxNodes) return stop(StopReason.NODE_LIMIT);
+        if (frontier > maxFrontier) return stop(StopReason.FRONTIER_LIMIT);
+        if (!slowChecksDue) return false;
+        if (heapBytes > maxBytes) return stop(StopReason.MEMORY_LIMIT);
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) return stop(StopReason.TIME_LIMIT);
+        return false;
+    }
+
+    public boolean isStopped() {
+        return stopReason != null;
+    }
+
+    // Why the last search using this budget gave up, or null if it ran to completion
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    // Also used by searches that enforce a limit of their own, such as a cap on resident nodes
+    public synchronized boolean stop(StopReason reason) {
+        if (stopReason == null) {
+            stopReason = reason;
+        }
+        return true;
+    }
+
+    // Rough heap cost of one retained GameState: object, offsets and occupancy
+    public static long stateBytes(GameLayout layout) {
+        return 48 + align(16 + layout.getPieceCount()) + align(16 + 8L * layout.getWords());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -3,53 +3,98 @@ package rush_hour.solver.algorithm;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Set;
+import java.util.function.Supplier;
 
+import rush_hour.model.GameLayout;
 import rush_hour.model.GameState;
+import rush_hour.solver.frontier.Frontier;
+import rush_hour.solver.frontier.HeapFrontier;
+import rush_hour.solver.heuristic.HeuristicFunction;
+import rush_hour.solver.metrics.SearchMetrics;
+import rush_hour.solver.table.StateTable;
 
 public class StandardSearch implements SearchAlgorithm{
-    private final Comparator<GameState> comparator;
+    private final Supplier<Frontier> frontierFactory;
+    private final HeuristicFunction heuristic;
     private int nodesExplored = 0;
+    private SearchMetrics metrics = new SearchMetrics();
 
     public StandardSearch(Comparator<GameState> comparator) {
-        this.comparator = comparator;
+        this(comparator, null);
+    }
+
+    // Heuristic values are computed once per generated state and cached on it for the comparator
+    public StandardSearch(Comparator<GameState> comparator, HeuristicFunction heuristic) {
+        this(() -> new HeapFrontier(comparator), heuristic);
+    }
+
+    public StandardSearch(Supplier<Frontier> frontierFactory, HeuristicFunction heuristic) {
+        this.frontierFactory = frontierFactory;
+        this.heuristic = heuristic;
     }
 
     @Override
-    public List<GameState> solve(GameState initialState) {
-        PriorityQueue<GameState> queue = new PriorityQueue<>(comparator);
-        Set<String> visited = new HashSet<>();
+    public List<GameState> solve(GameState initialState, SearchBudget budget) {
+        Frontier queue = frontierFactory.get();
+        GameLayout layout = initialState.getLayout();
+        StateTable visited = new StateTable(layout);
+        long[] key = new long[layout.getKeyWords()];
+        long stateBytes = SearchBudget.stateBytes(initialState.getLayout());
         nodesExplored = 0;
+        metrics = new SearchMetrics();
+        metrics.start();
+        budget.start();
 
+        evaluate(initialState);
         queue.add(initialState);
 
-        while (!queue.isEmpty()) {
-            nodesExplored++;
-            GameState current = queue.poll();
-
-            if (visited.contains(current.getBoard().toString())) {
-                continue;
-            }
+        try {
+            while (!queue.isEmpty()) {
+                if (budget.exhausted(nodesExplored, queue.size(), visited.sizeInBytes() + (visited.size() + queue.size()) * stateBytes)) {
+                    return Collections.emptyList();
+                }
+                nodesExplored++;
+                GameState current = queue.poll();
 
-            visited.add(current.getBoard().toString());
+                // Counted in nodesExplored for compatibility, but reported as a duplicate in the metrics
+                if (!visited.add(current)) {
+                    metrics.duplicate();
+                    continue;
+                }
+                metrics.expanded(queue.size(), visited.size());
 
-            if (current.isGoal()) {
-                GameState lastState = current.lastMove();
-                nodesExplored +=  current.getPrimaryPiece().getPositions().size();
-                return reconstructPath(lastState);
-            }
+                if (current.isGoal()) {
+                    GameState lastState = current.lastMove();
+                    nodesExplored += exitNodes(current);
+                    return reconstructPath(lastState);
+                }
 
-            for (GameState neighbor : current.generateSuccessors()) {
-                if (!visited.contains(neighbor.getBoard().toString())) {
-                    queue.add(neighbor);
+                // Successors are checked by their packed key first, so duplicates are never allocated
+                current.packKey(key);
+                for (int i = 0; i < layout.getPieceCount(); i++) {
+                    for (int dir = -1; dir <= 1; dir += 2) {
+                        if (!current.canMove(i, dir)) continue;
+                        metrics.generated(1);
+                        layout.adjustKey(key, i, dir);
+                        boolean seen = visited.containsKey(key);
+                        layout.adjustKey(key, i, -dir);
+                        if (seen) {
+                            metrics.duplicate();
+                            continue;
+                        }
+                        GameState neighbor = current.move(i, dir);
+                        evaluate(neighbor);
+                        queue.add(neighbor);
+                    }
                 }
             }
-        }
 
-        return Collections.emptyList();
+            return Collections.emptyList();
+        } finally {
+            metrics.retained(visited.sizeInBytes() + (visited.size() + queue.size()) * stateBytes, visited.size() + queue.size());
+            metrics.finish();
+        }
     }
 
     @Override
@@ -57,7 +102,21 @@ public class StandardSearch implements SearchAlgorithm{
         return nodesExplored;
     }
 
-    private List<GameState> reconstructPath(GameState goalState) {
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void evaluate(GameState state) {
+        state.setHeuristic(heuristic == null ? 0 : metrics.evaluate(heuristic, state));
+    }
+
+    // Added to nodesExplored when a goal is reached: the primary piece slides out one cell per step
+    static int exitNodes(GameState goal) {
+        return goal.getLayout().getLength(goal.getLayout().getPrimaryIndex());
+    }
+
+    static List<GameState> reconstructPath(GameState goalState) {
         List<GameState> path = new ArrayList<>();
         GameState current = goalState;
         while (current != null) {
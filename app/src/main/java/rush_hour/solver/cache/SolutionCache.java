@@ -0,0 +1,320 @@
+package rush_hour.solver.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+
+/**
+ * Solutions keyed by a canonical encoding of the initial state (board size,
+ * goal, and every piece sorted by id with its lane and offset) together with
+ * the optimality class of the algorithm that produced them. Optimal
+ * algorithms share one class, since any of their solutions is as good as
+ * another's; greedy results are only reused for the same heuristic.
+ *
+ * Recently used entries live in an in-memory LRU. Everything else is in an
+ * append-only file of CRC-checked records, written under a file lock, that
+ * other processes may read and append to at the same time; records they add
+ * are picked up on the next miss. Records from another ALGORITHM_VERSION are
+ * never matched, so bumping it invalidates the whole store.
+ */
+public class SolutionCache implements Closeable {
+    public static final int ALGORITHM_VERSION = 2; // 2: moves name pieces by rank instead of id
+    public static final String OPTIMAL = "optimal";
+
+    private static final int MAGIC = 0x52485343; // "RHSC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+    private static final int UNSOLVABLE = -1;
+
+    private final FileChannel channel;
+    private final Map<Long, Long> index = new HashMap<>(); // Key hash -> record position
+    private final Map<Long, Entry> memory;
+    private long indexed;
+
+    public SolutionCache(Path file, int memoryEntries) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        try {
+            openStore(file);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Greedy and beam searches are only as good as their heuristic, so each gets its own class
+    public static String optimalityClass(String algorithmName, String heuristicName) {
+        return switch (algorithmName) {
+            case "Greedy Best First" -> "greedy/" + heuristicName;
+            case "Beam Search" -> "beam/" + heuristicName;
+            default -> OPTIMAL;
+        };
+    }
+
+    // Cached path replayed from initialState, an empty list for a known unsolvable puzzle, or null on a miss
+    public synchronized List<GameState> get(GameState initialState, String optimalityClass) {
+        byte[] key = key(initialState, optimalityClass);
+        long hash = hash(key);
+
+        Entry entry = memory.get(hash);
+        if (entry == null || !Arrays.equals(entry.key, key)) {
+            entry = readEntry(hash, key);
+            if (entry == null) return null;
+            memory.put(hash, entry);
+        }
+        return replay(initialState, entry.moves);
+    }
+
+    @SuppressWarnings("try") // The lock is held for the body and never referenced
+    public synchronized void put(GameState initialState, String optimalityClass, List<GameState> path) {
+        byte[] key = key(initialState, optimalityClass);
+        long hash = hash(key);
+        char[] moves = encode(path);
+        Entry entry = new Entry(key, moves);
+        memory.put(hash, entry);
+
+        ByteBuffer payload = ByteBuffer.allocate(4 + key.length + 4 + (moves == null ? 0 : moves.length * 2))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        payload.putInt(key.length).put(key);
+        payload.putInt(moves == null ? UNSOLVABLE : moves.length);
+        if (moves != null) {
+            for (char move : moves) payload.putChar(move);
+        }
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.limit()).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(payload.limit()).putInt((int) crc.getValue()).put(payload).flip();
+
+        try (FileLock lock = channel.lock()) {
+            catchUp();
+            long position = channel.size();
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+            index.put(hash, position);
+            indexed = position + record.limit();
+        } catch (IOException e) {
+            // The in-memory entry still serves this process
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // Writes the header to an empty file; a file in another format is refused rather than overwritten
+    @SuppressWarnings("try")
+    private void openStore(Path file) throws IOException {
+        try (FileLock lock = channel.lock()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() > 0) {
+                if (channel.size() < HEADER_BYTES) {
+                    throw new IOException(file + " is not a solution cache");
+                }
+                readFully(header, 0);
+                if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                    throw new IOException(file + " is not a solution cache in format " + FORMAT_VERSION);
+                }
+                indexed = HEADER_BYTES;
+                catchUp();
+                return;
+            }
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            channel.write(header, 0);
+            indexed = HEADER_BYTES;
+        }
+    }
+
+    // Indexes records appended since the last scan, stopping at one that is still being written
+    private void catchUp() {
+        try {
+            ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long size = channel.size();
+            while (indexed + RECORD_HEADER_BYTES <= size) {
+                recordHeader.clear();
+                readFully(recordHeader, indexed);
+                int length = recordHeader.getInt(0);
+                if (length <= 0 || length > MAX_RECORD_BYTES || indexed + RECORD_HEADER_BYTES + length > size) return;
+
+                ByteBuffer payload = readPayload(indexed, length, recordHeader.getInt(4));
+                if (payload != null) {
+                    byte[] key = new byte[payload.getInt()];
+                    payload.get(key);
+                    index.put(hash(key), indexed);
+                }
+                indexed += RECORD_HEADER_BYTES + length;
+            }
+        } catch (IOException e) {
+            // Unreadable tail: retry on the next miss
+        }
+    }
+
+    private Entry readEntry(long hash, byte[] key) {
+        Long position = index.get(hash);
+        if (position == null) {
+            catchUp();
+            position = index.get(hash);
+            if (position == null) return null;
+        }
+        try {
+            ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(recordHeader, position);
+            ByteBuffer payload = readPayload(position, recordHeader.getInt(0), recordHeader.getInt(4));
+            if (payload == null) return null;
+
+            byte[] storedKey = new byte[payload.getInt()];
+            payload.get(storedKey);
+            if (!Arrays.equals(storedKey, key)) return null;
+
+            int count = payload.getInt();
+            char[] moves = null;
+            if (count != UNSOLVABLE) {
+                moves = new char[count];
+                for (int i = 0; i < count; i++) moves[i] = payload.getChar();
+            }
+            return new Entry(key, moves);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private ByteBuffer readPayload(long position, int length, int checksum) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(payload, position + RECORD_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        return (int) crc.getValue() == checksum ? payload : null;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of cache file");
+            }
+        }
+        buffer.flip();
+    }
+
+    // Piece indices sorted by id; a piece's rank in this order is the same for every layout with the same pieces
+    private static int[] idOrder(GameLayout layout) {
+        int n = layout.getPieceCount();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Character.compare(layout.getId(a), layout.getId(b)));
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) sorted[i] = order[i];
+        return sorted;
+    }
+
+    private static byte[] key(GameState state, String optimalityClass) {
+        GameLayout layout = state.getLayout();
+        int n = layout.getPieceCount();
+        int[] order = idOrder(layout);
+
+        byte[] algorithm = optimalityClass.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer key = ByteBuffer.allocate(4 + 4 + algorithm.length + 16 + n * 8).order(ByteOrder.LITTLE_ENDIAN);
+        key.putInt(ALGORITHM_VERSION).putInt(algorithm.length).put(algorithm);
+        key.putInt(layout.getRows()).putInt(layout.getCols())
+            .putInt(layout.getGoalPlacement().ordinal()).putInt(layout.getGoalIndex());
+        for (int i : order) {
+            key.putChar(layout.getId(i))
+                .put((byte) (layout.isHorizontal(i) ? 1 : 0))
+                .put((byte) layout.getLane(i))
+                .put((byte) layout.getLength(i))
+                .put((byte) state.getOffset(i))
+                .putShort((short) 0);
+        }
+        return key.array();
+    }
+
+    private static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L; // FNV-1a
+        for (byte b : key) {
+            h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // One char per slide: the piece's rank by id shifted left, with the low bit set for a forward move.
+    // Ranks fit because a 127x127 board holds fewer than 2^15 pieces, whatever characters they use.
+    private static char[] encode(List<GameState> path) {
+        if (path.isEmpty()) return null;
+        GameLayout layout = path.get(0).getLayout();
+        int[] order = idOrder(layout);
+        int[] rank = new int[order.length];
+        for (int r = 0; r < order.length; r++) rank[order[r]] = r;
+
+        char[] moves = new char[path.size() - 2]; // The final exit move is implied
+        for (int step = 1; step < path.size() - 1; step++) {
+            GameState from = path.get(step - 1), to = path.get(step);
+            for (int i = 0; i < layout.getPieceCount(); i++) {
+                int delta = to.getOffset(i) - from.getOffset(i);
+                if (delta != 0) {
+                    moves[step - 1] = (char) ((rank[i] << 1) | (delta > 0 ? 1 : 0));
+                    break;
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static List<GameState> replay(GameState initialState, char[] moves) {
+        if (moves == null) return new ArrayList<>();
+
+        int[] order = idOrder(initialState.getLayout());
+
+        List<GameState> path = new ArrayList<>(moves.length + 2);
+        GameState current = initialState;
+        path.add(current);
+        for (char move : moves) {
+            int rank = move >>> 1;
+            if (rank >= order.length) return null;
+            int piece = order[rank];
+            int dir = (move & 1) == 1 ? 1 : -1;
+            if (!current.canMove(piece, dir)) return null;
+            current = current.move(piece, dir);
+            path.add(current);
+        }
+        if (!current.isGoal()) return null;
+        path.add(current.lastMove());
+        return path;
+    }
+
+    private record Entry(byte[] key, char[] moves) {
+    }
+}
@@ -0,0 +1,106 @@
+package rush_hour.solver.frontier;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import rush_hour.model.GameState;
+
+/**
+ * Two-level bucket queue for small non-negative integer priorities.
+ * States are bucketed by a primary key (e.g. f = g + h), then by an optional
+ * tie-breaking key (e.g. h); the lowest keys are polled first. Within a bucket
+ * states leave in FIFO or LIFO order. Push and pop are O(1) amortized.
+ */
+public class BucketFrontier implements Frontier {
+    private final ToIntFunction<GameState> primaryKey;
+    private final ToIntFunction<GameState> tieBreakKey;
+    private final boolean lifo;
+    private final List<Bucket> buckets = new ArrayList<>();
+    private int minPrimary = 0;
+    private int size = 0;
+
+    public BucketFrontier(ToIntFunction<GameState> primaryKey, ToIntFunction<GameState> tieBreakKey, boolean lifo) {
+        this.primaryKey = primaryKey;
+        this.tieBreakKey = tieBreakKey;
+        this.lifo = lifo;
+    }
+
+    @Override
+    public void add(GameState state) {
+        int primary = primaryKey.applyAsInt(state);
+        int secondary = tieBreakKey == null ? 0 : tieBreakKey.applyAsInt(state);
+        if (primary < 0 || secondary < 0) {
+            throw new IllegalArgumentException("Bucket keys must be non-negative");
+        }
+
+        while (buckets.size() <= primary) {
+            buckets.add(null);
+        }
+        Bucket bucket = buckets.get(primary);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.set(primary, bucket);
+        }
+        bucket.add(secondary, state);
+
+        if (size == 0 || primary < minPrimary) {
+            minPrimary = primary;
+        }
+        size++;
+    }
+
+    @Override
+    public GameState poll() {
+        if (size == 0) return null;
+        Bucket bucket = buckets.get(minPrimary);
+        while (bucket == null || bucket.size == 0) {
+            bucket = buckets.get(++minPrimary);
+        }
+        size--;
+        return bucket.poll(lifo);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static class Bucket {
+        private final List<ArrayDeque<GameState>> slots = new ArrayList<>();
+        private int minSlot = 0;
+        private int size = 0;
+
+        void add(int key, GameState state) {
+            while (slots.size() <= key) {
+                slots.add(null);
+            }
+            ArrayDeque<GameState> slot = slots.get(key);
+            if (slot == null) {
+                slot = new ArrayDeque<>();
+                slots.set(key, slot);
+            }
+            slot.addLast(state);
+
+            if (size == 0 || key < minSlot) {
+                minSlot = key;
+            }
+            size++;
+        }
+
+        GameState poll(boolean lifo) {
+            ArrayDeque<GameState> slot = slots.get(minSlot);
+            while (slot == null || slot.isEmpty()) {
+                slot = slots.get(++minSlot);
+            }
+            size--;
+            return lifo ? slot.pollLast() : slot.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package rush_hour.solver.frontier;
+
+import rush_hour.model.GameState;
+
+public interface Frontier {
+    void add(GameState state);
+    GameState poll();
+    boolean isEmpty();
+    int size();
+}
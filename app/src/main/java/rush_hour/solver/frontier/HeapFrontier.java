@@ -0,0 +1,34 @@
+package rush_hour.solver.frontier;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import rush_hour.model.GameState;
+
+public class HeapFrontier implements Frontier {
+    private final PriorityQueue<GameState> queue;
+
+    public HeapFrontier(Comparator<GameState> comparator) {
+        this.queue = new PriorityQueue<>(comparator);
+    }
+
+    @Override
+    public void add(GameState state) {
+        queue.add(state);
+    }
+
+    @Override
+    public GameState poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
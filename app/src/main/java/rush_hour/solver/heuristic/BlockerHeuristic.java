@@ -1,69 +1,60 @@
 package rush_hour.solver.heuristic;
 
-import java.util.HashSet;
-import java.util.Set;
-
-import rush_hour.model.GameEnums;
-import rush_hour.model.GamePiece;
+import rush_hour.model.GameLayout;
 import rush_hour.model.GameState;
 
 public class BlockerHeuristic implements HeuristicFunction {
     @Override
     public int calculate(GameState state) {
-        GamePiece primaryPiece = getPrimaryPiece(state);
-        char[][] grid = state.getBoard().getGridCopy();
-        GameEnums.GoalPlacement goalSide = state.getBoard().getGoalPlacement();
-
-        Set<Character> blockers = new HashSet<>();
-
-        for (int[] pos : primaryPiece.getPositions()) {
-            int x = pos[0];
-            int y = pos[1];
+        GameLayout layout = state.getLayout();
+        int primary = getPrimaryIndex(state);
+        int offset = state.getOffset(primary);
+        int x = layout.cellCol(primary, offset, 0);
+        int y = layout.cellRow(primary, offset, 0);
+
+        // Cells scanned from the primary piece towards the goal side, as [from, to] along one axis
+        int fixedRow = -1, fixedCol = -1, from, to;
+        switch (layout.getGoalPlacement()) {
+            case RIGHT -> { fixedRow = y; from = x + 1; to = layout.getCols() - 1; }
+            case LEFT -> { fixedRow = y; from = 0; to = x - 1; }
+            case BOTTOM -> { fixedCol = x; from = y + 1; to = layout.getRows() - 1; }
+            default -> { fixedCol = x; from = 0; to = y - 1; }
+        }
 
-            switch (goalSide) {
-                case RIGHT -> {
-                    for (int col = x + 1; col < grid[0].length; col++) {
-                        char cell = grid[y][col];
-                        if (cell != '.' && cell != 'P') {
-                            blockers.add(cell);
-                        }
-                    }
-                }
-                case LEFT -> {
-                    for (int col = x - 1; col >= 0; col--) {
-                        char cell = grid[y][col];
-                        if (cell != '.' && cell != 'P') {
-                            blockers.add(cell);
-                        }
-                    }
-                }
-                case BOTTOM -> {
-                    for (int row = y + 1; row < grid.length; row++) {
-                        char cell = grid[row][x];
-                        if (cell != '.' && cell != 'P') {
-                            blockers.add(cell);
-                        }
-                    }
-                }
-                case TOP -> {
-                    for (int row = y - 1; row >= 0; row--) {
-                        char cell = grid[row][x];
-                        if (cell != '.' && cell != 'P') {
-                            blockers.add(cell);
-                        }
-                    }
-                }
+        int blockers = 0;
+        for (int i = 0; i < layout.getPieceCount(); i++) {
+            if (i == primary || state.getOffset(i) < 0) continue;
+            if (crossesSegment(layout, i, state.getOffset(i), fixedRow, fixedCol, from, to)) {
+                blockers++;
             }
-            break;
         }
+        return blockers;
+    }
 
-        return blockers.size();
+    private boolean crossesSegment(GameLayout layout, int piece, int offset, int fixedRow, int fixedCol, int from, int to) {
+        if (from > to) return false;
+        int start = offset;
+        int end = offset + layout.getLength(piece) - 1;
+        boolean horizontal = layout.isHorizontal(piece);
+        int lane = layout.getLane(piece);
+
+        if (fixedRow >= 0) {
+            // Segment runs along a row
+            return horizontal
+                ? lane == fixedRow && start <= to && end >= from
+                : lane >= from && lane <= to && start <= fixedRow && end >= fixedRow;
+        }
+        // Segment runs along a column
+        return horizontal
+            ? lane >= from && lane <= to && start <= fixedCol && end >= fixedCol
+            : lane == fixedCol && start <= to && end >= from;
     }
 
-    private GamePiece getPrimaryPiece(GameState state) {
-        for (GamePiece piece : state.getPieces()) {
-            if (piece.getId() == 'P') return piece;
+    private int getPrimaryIndex(GameState state) {
+        int primary = state.getLayout().getPrimaryIndex();
+        if (primary < 0 || state.getOffset(primary) < 0) {
+            throw new IllegalStateException("Primary piece (id='P') not found");
         }
-        throw new IllegalStateException("Primary piece (id='P') not found");
+        return primary;
     }
-}
\ No newline at end of file
+}
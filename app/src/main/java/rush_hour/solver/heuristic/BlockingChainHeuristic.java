@@ -0,0 +1,185 @@
+package rush_hour.solver.heuristic;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rush_hour.model.GameEnums;
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.table.StateTable;
+
+/**
+ * Combined heuristic plus the blockers of blockers. Every direct blocker
+ * must leave the primary lane in one of two directions, and every piece
+ * standing in that way must move too, recursively. Only pieces not counted
+ * anywhere else are added, and only along the single most expensive chain,
+ * so each counted piece stands for at least one distinct move.
+ *
+ * Values are memoized per thread on the packed configuration, which pays
+ * off for IDA* where the same states are evaluated once per iteration. The
+ * memos belong to this instance rather than to the threads, so they are
+ * released with it; GameSolver creates one per solve.
+ */
+public class BlockingChainHeuristic implements HeuristicFunction {
+    private static final int MAX_DEPTH = 3;
+    private static final int MEMO_LIMIT = 1 << 20;
+
+    private final CombinedHeuristic combined = new CombinedHeuristic();
+    private final Map<Thread, Scratch> scratch = new ConcurrentHashMap<>();
+    private Scratch last; // Skips the map lookup while one thread does all the evaluating
+
+    @Override
+    public int calculate(GameState state) {
+        GameLayout layout = state.getLayout();
+        Thread thread = Thread.currentThread();
+        Scratch s = last;
+        if (s == null || s.thread != thread) {
+            s = scratch.get(thread);
+        }
+        if (s == null || s.layout != layout) {
+            s = new Scratch(thread, layout);
+            scratch.put(thread, s);
+        }
+        last = s;
+
+        int cached = s.memo.get(state, -1);
+        if (cached >= 0) return cached;
+
+        int value = combined.calculate(state) + chains(state, s);
+        if (s.memo.size() >= MEMO_LIMIT) {
+            s.memo.clear();
+        }
+        s.memo.put(state, value);
+        return value;
+    }
+
+    // Most expensive chain behind any direct blocker; the blockers themselves are already counted
+    private int chains(GameState state, Scratch s) {
+        GameLayout layout = s.layout;
+        int primary = layout.getPrimaryIndex();
+        GameEnums.GoalPlacement goal = layout.getGoalPlacement();
+        boolean alongRow = goal == GameEnums.GoalPlacement.LEFT || goal == GameEnums.GoalPlacement.RIGHT;
+        if (layout.isHorizontal(primary) != alongRow) {
+            return 0; // Exit is not along the primary lane; Combined already covers what can be said
+        }
+        boolean forward = goal == GameEnums.GoalPlacement.RIGHT || goal == GameEnums.GoalPlacement.BOTTOM;
+
+        s.fillOwners(state);
+        Arrays.fill(s.excluded, false);
+        s.excluded[primary] = true;
+
+        int offset = state.getOffset(primary);
+        int from = forward ? offset + layout.getLength(primary) : 0;
+        int to = forward ? layout.laneSize(primary) - 1 : offset - 1;
+        int blockers = collect(layout, primary, from, to, s, s.stack[0]);
+        for (int b = 0; b < blockers; b++) {
+            s.excluded[s.stack[0][b]] = true;
+        }
+
+        int best = 0;
+        for (int b = 0; b < blockers; b++) {
+            int blocker = s.stack[0][b];
+            best = Math.max(best, clear(state, blocker, primary, from, to, 1, s));
+        }
+        return best;
+    }
+
+    // Lower bound on uncounted pieces that must move so piece can leave the cells [from, to] of lane's piece
+    private int clear(GameState state, int piece, int lanePiece, int from, int to, int depth, Scratch s) {
+        GameLayout layout = s.layout;
+        int low = Integer.MAX_VALUE, high = Integer.MIN_VALUE;
+        for (int p = from; p <= to; p++) {
+            int cell = layout.laneCell(lanePiece, p);
+            if (s.owner(cell) != piece) continue;
+            int position = layout.isHorizontal(piece) ? cell % layout.getCols() : cell / layout.getCols();
+            low = Math.min(low, position);
+            high = Math.max(high, position);
+        }
+        if (low > high) return 0;
+
+        int offset = state.getOffset(piece);
+        int length = layout.getLength(piece);
+        int best = Integer.MAX_VALUE;
+
+        // Backwards until the piece ends before low
+        int target = low - length;
+        if (target >= 0) {
+            best = Math.min(best, pathCost(state, piece, target, offset - 1, depth, s));
+        }
+        // Forwards until the piece starts after high
+        if (high + length < layout.laneSize(piece)) {
+            best = Math.min(best, pathCost(state, piece, offset + length, high + length, depth, s));
+        }
+        return best == Integer.MAX_VALUE ? 0 : best;
+    }
+
+    private int pathCost(GameState state, int piece, int from, int to, int depth, Scratch s) {
+        int[] found = s.stack[depth];
+        int count = collect(s.layout, piece, from, to, s, found);
+        if (count == 0 || depth == MAX_DEPTH) return count;
+
+        for (int k = 0; k < count; k++) s.excluded[found[k]] = true;
+        int deepest = 0;
+        for (int k = 0; k < count; k++) {
+            deepest = Math.max(deepest, clear(state, found[k], piece, from, to, depth + 1, s));
+        }
+        for (int k = 0; k < count; k++) s.excluded[found[k]] = false;
+        return count + deepest;
+    }
+
+    // Distinct uncounted pieces on positions [from, to] of piece's lane
+    private int collect(GameLayout layout, int piece, int from, int to, Scratch s, int[] found) {
+        int count = 0;
+        for (int p = from; p <= to; p++) {
+            int owner = s.owner(layout.laneCell(piece, p));
+            if (owner < 0 || s.excluded[owner]) continue;
+            boolean seen = false;
+            for (int k = 0; k < count && !seen; k++) seen = found[k] == owner;
+            if (!seen) found[count++] = owner;
+        }
+        return count;
+    }
+
+    private static class Scratch {
+        final Thread thread;
+        final GameLayout layout;
+        final StateTable memo;
+        final int[] owners;
+        final int[] stamps; // owners[cell] is current only where stamps[cell] == stamp
+        int stamp = 0;
+        final boolean[] excluded;
+        final int[][] stack;
+
+        Scratch(Thread thread, GameLayout layout) {
+            this.thread = thread;
+            this.layout = layout;
+            this.memo = new StateTable(layout);
+            this.owners = new int[layout.getRows() * layout.getCols()];
+            this.stamps = new int[owners.length];
+            this.excluded = new boolean[layout.getPieceCount()];
+            this.stack = new int[MAX_DEPTH + 1][layout.getPieceCount()];
+        }
+
+        void fillOwners(GameState state) {
+            // Stamping instead of clearing keeps this proportional to the pieces, not the board area
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            for (int i = 0; i < layout.getPieceCount(); i++) {
+                int offset = state.getOffset(i);
+                if (offset < 0) continue;
+                for (int k = 0; k < layout.getLength(i); k++) {
+                    int cell = layout.laneCell(i, offset + k);
+                    owners[cell] = i;
+                    stamps[cell] = stamp;
+                }
+            }
+        }
+
+        int owner(int cell) {
+            return stamps[cell] == stamp ? owners[cell] : -1;
+        }
+    }
+}
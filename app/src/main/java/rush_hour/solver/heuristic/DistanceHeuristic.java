@@ -1,38 +1,32 @@
 package rush_hour.solver.heuristic;
 
-import rush_hour.model.GameEnums;
-import rush_hour.model.GamePiece;
+import rush_hour.model.GameLayout;
 import rush_hour.model.GameState;
 
 public class DistanceHeuristic implements HeuristicFunction {
     @Override
     public int calculate(GameState state) {
-        GamePiece primaryPiece = getPrimaryPiece(state);
-        char[][] grid = state.getBoard().getGridCopy();
-        GameEnums.GoalPlacement goalSide = state.getBoard().getGoalPlacement();
+        GameLayout layout = state.getLayout();
+        int primary = getPrimaryIndex(state);
+        int offset = state.getOffset(primary);
 
-        int distanceToGoal = 0;
+        // Measured from the top/left cell of the primary piece
+        int x = layout.cellCol(primary, offset, 0);
+        int y = layout.cellRow(primary, offset, 0);
 
-        for (int[] pos : primaryPiece.getPositions()) {
-            int x = pos[0];
-            int y = pos[1];
-            
-            switch (goalSide) {
-                case RIGHT -> distanceToGoal = grid[0].length - 1 - x;
-                case LEFT -> distanceToGoal = x;
-                case BOTTOM -> distanceToGoal = grid.length - 1 - y;
-                case TOP -> distanceToGoal = y;
-            }
-            break;
-        }
-
-        return distanceToGoal;
+        return switch (layout.getGoalPlacement()) {
+            case RIGHT -> layout.getCols() - 1 - x;
+            case LEFT -> x;
+            case BOTTOM -> layout.getRows() - 1 - y;
+            case TOP -> y;
+        };
     }
 
-    private GamePiece getPrimaryPiece(GameState state) {
-        for (GamePiece piece : state.getPieces()) {
-            if (piece.getId() == 'P') return piece;
+    private int getPrimaryIndex(GameState state) {
+        int primary = state.getLayout().getPrimaryIndex();
+        if (primary < 0 || state.getOffset(primary) < 0) {
+            throw new IllegalStateException("Primary piece (id='P') not found");
         }
-        throw new IllegalStateException("Primary piece (id='P') not found");
+        return primary;
     }
-}
\ No newline at end of file
+}
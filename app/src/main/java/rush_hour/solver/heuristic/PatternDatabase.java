@@ -0,0 +1,265 @@
+package rush_hour.solver.heuristic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+
+/**
+ * Exact distances to the goal in an abstraction that keeps only the primary
+ * piece and the pieces whose lane crosses it. Every other piece is removed,
+ * which can only shorten solutions, so the distances are admissible and
+ * consistent.
+ *
+ * Abstract states are ranked in mixed radix over the pattern pieces' offsets
+ * and stored one byte each. Tables are written once per pattern to a binary
+ * file and memory-mapped afterwards, so threads and processes share the same
+ * pages instead of heap copies. Puzzles with the same pattern share a file.
+ */
+public final class PatternDatabase {
+    public static final int UNREACHABLE = 0xFF;
+
+    private static final int MAGIC = 0x52485042; // "RHPB"
+    private static final int VERSION = 1;
+    private static final int MAX_ENTRIES = 1 << 24;
+
+    private final int[] pieces;
+    private final int[] strides;
+    private final ByteBuffer table;
+    private final int dataOffset;
+
+    private PatternDatabase(int[] pieces, int[] strides, ByteBuffer table, int dataOffset) {
+        this.pieces = pieces;
+        this.strides = strides;
+        this.table = table;
+        this.dataOffset = dataOffset;
+    }
+
+    // Maps the table for this layout's pattern, building and saving it first if needed
+    public static PatternDatabase load(GameLayout layout, Path directory) {
+        int[] pieces = selectPattern(layout);
+        int[] radices = radices(layout, pieces);
+        int[] strides = strides(radices);
+        ByteBuffer header = header(layout, pieces);
+        int size = strides[0] * radices[0];
+        Path file = directory.resolve(String.format("%016x.pdb", fingerprint(header)));
+
+        try {
+            ByteBuffer mapped = map(file, header, size);
+            if (mapped != null) {
+                return new PatternDatabase(pieces, strides, mapped, header.capacity());
+            }
+        } catch (IOException e) {
+            // Unreadable file: rebuild below
+        }
+
+        byte[] distances = build(layout, pieces, radices, strides);
+        try {
+            write(file, header, distances);
+            ByteBuffer mapped = map(file, header, size);
+            if (mapped != null) {
+                return new PatternDatabase(pieces, strides, mapped, header.capacity());
+            }
+        } catch (IOException e) {
+            // Directory not writable: keep the table on the heap for this process
+        }
+        return new PatternDatabase(pieces, strides, ByteBuffer.wrap(distances), 0);
+    }
+
+    // Abstract moves to the goal, or UNREACHABLE
+    public int distance(GameState state) {
+        int rank = 0;
+        for (int j = 0; j < pieces.length; j++) {
+            rank += state.getOffset(pieces[j]) * strides[j];
+        }
+        return table.get(dataOffset + rank) & 0xFF;
+    }
+
+    public int getPatternSize() {
+        return pieces.length;
+    }
+
+    // Primary first, then crossing pieces in layout order while the table stays within MAX_ENTRIES
+    private static int[] selectPattern(GameLayout layout) {
+        int primary = layout.getPrimaryIndex();
+        if (primary < 0) {
+            throw new IllegalStateException("Primary piece (id='P') not found");
+        }
+
+        List<Integer> pattern = new ArrayList<>();
+        pattern.add(primary);
+        long entries = positions(layout, primary);
+        for (int i = 0; i < layout.getPieceCount(); i++) {
+            if (i == primary || !crossesLane(layout, i, primary)) continue;
+            long grown = entries * positions(layout, i);
+            if (grown > MAX_ENTRIES) continue;
+            pattern.add(i);
+            entries = grown;
+        }
+        return pattern.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean crossesLane(GameLayout layout, int piece, int primary) {
+        for (int p = 0; p < layout.laneSize(piece); p++) {
+            int cell = layout.laneCell(piece, p);
+            for (int q = 0; q < layout.laneSize(primary); q++) {
+                if (layout.laneCell(primary, q) == cell) return true;
+            }
+        }
+        return false;
+    }
+
+    private static int positions(GameLayout layout, int piece) {
+        return layout.laneSize(piece) - layout.getLength(piece) + 1;
+    }
+
+    private static int[] radices(GameLayout layout, int[] pieces) {
+        int[] radices = new int[pieces.length];
+        for (int j = 0; j < pieces.length; j++) {
+            radices[j] = positions(layout, pieces[j]);
+        }
+        return radices;
+    }
+
+    private static int[] strides(int[] radices) {
+        int[] strides = new int[radices.length];
+        int stride = 1;
+        for (int j = radices.length - 1; j >= 0; j--) {
+            strides[j] = stride;
+            stride *= radices[j];
+        }
+        return strides;
+    }
+
+    // Multi-source BFS from every abstract goal; moves are reversible so forward moves suffice
+    private static byte[] build(GameLayout layout, int[] pieces, int[] radices, int[] strides) {
+        int size = strides[0] * radices[0];
+        byte[] distances = new byte[size];
+        Arrays.fill(distances, (byte) UNREACHABLE);
+        int[] queue = new int[size];
+        int head = 0, tail = 0;
+
+        int[] offsets = new int[pieces.length];
+        long[] occupancy = new long[layout.getWords()];
+        for (int rank = 0; rank < size; rank++) {
+            decode(rank, radices, offsets);
+            if (layout.isGoal(offsets[0]) && place(layout, pieces, offsets, occupancy)) {
+                distances[rank] = 0;
+                queue[tail++] = rank;
+            }
+        }
+
+        while (head < tail) {
+            int rank = queue[head++];
+            int next = Math.min(UNREACHABLE - 1, (distances[rank] & 0xFF) + 1);
+            decode(rank, radices, offsets);
+            place(layout, pieces, offsets, occupancy);
+
+            for (int j = 0; j < pieces.length; j++) {
+                int piece = pieces[j];
+                int offset = offsets[j];
+                if (offset > 0 && !isSet(occupancy, layout.laneCell(piece, offset - 1))) {
+                    tail = visit(distances, queue, tail, rank - strides[j], next);
+                }
+                int front = offset + layout.getLength(piece);
+                if (front < layout.laneSize(piece) && !isSet(occupancy, layout.laneCell(piece, front))) {
+                    tail = visit(distances, queue, tail, rank + strides[j], next);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static int visit(byte[] distances, int[] queue, int tail, int rank, int distance) {
+        if ((distances[rank] & 0xFF) != UNREACHABLE) return tail;
+        distances[rank] = (byte) distance;
+        queue[tail] = rank;
+        return tail + 1;
+    }
+
+    private static void decode(int rank, int[] radices, int[] offsets) {
+        for (int j = radices.length - 1; j >= 0; j--) {
+            offsets[j] = rank % radices[j];
+            rank /= radices[j];
+        }
+    }
+
+    // Fills occupancy with the pattern pieces; false if any two overlap
+    private static boolean place(GameLayout layout, int[] pieces, int[] offsets, long[] occupancy) {
+        Arrays.fill(occupancy, 0L);
+        for (int j = 0; j < pieces.length; j++) {
+            for (int k = 0; k < layout.getLength(pieces[j]); k++) {
+                int cell = layout.laneCell(pieces[j], offsets[j] + k);
+                if (isSet(occupancy, cell)) return false;
+                occupancy[cell >>> 6] |= 1L << cell;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSet(long[] occupancy, int cell) {
+        return (occupancy[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // Everything the table depends on; a mismatch on load means the file is stale
+    private static ByteBuffer header(GameLayout layout, int[] pieces) {
+        ByteBuffer header = ByteBuffer.allocate(4 * (7 + 3 * pieces.length)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION)
+            .putInt(layout.getRows()).putInt(layout.getCols())
+            .putInt(layout.getGoalPlacement().ordinal()).putInt(layout.getGoalIndex())
+            .putInt(pieces.length);
+        for (int piece : pieces) {
+            header.putInt(layout.isHorizontal(piece) ? 1 : 0)
+                .putInt(layout.getLane(piece))
+                .putInt(layout.getLength(piece));
+        }
+        return header.flip();
+    }
+
+    private static long fingerprint(ByteBuffer header) {
+        long h = 0xcbf29ce484222325L; // FNV-1a
+        for (int i = 0; i < header.limit(); i++) {
+            h = (h ^ (header.get(i) & 0xFF)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static ByteBuffer map(Path file, ByteBuffer header, int size) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != header.limit() + (long) size) return null;
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return mapped.slice(0, header.limit()).equals(header) ? mapped : null;
+        }
+    }
+
+    // Written to a temporary file and moved into place so readers never see a partial table
+    private static void write(Path file, ByteBuffer header, byte[] distances) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), "pdb", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(header.duplicate());
+                channel.write(ByteBuffer.wrap(distances));
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package rush_hour.solver.heuristic;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+
+public class PatternDatabaseHeuristic implements HeuristicFunction {
+    public static final String DIRECTORY_PROPERTY = "rush_hour.pdb.dir";
+
+    private final Path directory;
+    private volatile Loaded loaded;
+
+    public PatternDatabaseHeuristic() {
+        this(Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+            Paths.get(System.getProperty("java.io.tmpdir"), "rush-hour-pdb").toString())));
+    }
+
+    public PatternDatabaseHeuristic(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public int calculate(GameState state) {
+        GameLayout layout = state.getLayout();
+        int primary = layout.getPrimaryIndex();
+        if (primary < 0 || state.getOffset(primary) < 0) {
+            throw new IllegalStateException("Primary piece (id='P') not found");
+        }
+
+        // Abstract distance to the goal position, plus the move that drives the primary piece out
+        return database(layout).distance(state) + 1;
+    }
+
+    private PatternDatabase database(GameLayout layout) {
+        Loaded current = loaded;
+        if (current != null && current.layout == layout) {
+            return current.database;
+        }
+        synchronized (this) {
+            current = loaded;
+            if (current == null || current.layout != layout) {
+                current = new Loaded(layout, PatternDatabase.load(layout, directory));
+                loaded = current;
+            }
+            return current.database;
+        }
+    }
+
+    private record Loaded(GameLayout layout, PatternDatabase database) {
+    }
+}
@@ -0,0 +1,191 @@
+package rush_hour.solver.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Writes search metrics to a local file. A ".prom" file gets the Prometheus
+ * text format, rewritten atomically after every search so a node exporter
+ * textfile collector never reads half a file. Any other file gets one JSON
+ * object per search, appended as soon as it finishes.
+ *
+ * Prometheus series are kept per label set, ignoring the per-puzzle
+ * SOURCE_LABEL, so the file does not grow with the number of searches:
+ * counters are summed, peaks are the largest seen and bytes per node is
+ * that of the latest search.
+ */
+public class MetricsExporter {
+    public static final String SOURCE_LABEL = "file";
+
+    private static final class Series {
+        long searches, expanded, generated, duplicates, evaluations;
+        long heuristicNanos, elapsedNanos;
+        long peakOpen, peakClosed, bytesPerNode;
+        long[] workerExpanded = new long[0];
+
+        void add(SearchMetrics m) {
+            searches++;
+            expanded += m.getExpanded();
+            generated += m.getGenerated();
+            duplicates += m.getDuplicates();
+            evaluations += m.getHeuristicEvaluations();
+            heuristicNanos += m.getHeuristicNanos();
+            elapsedNanos += m.getElapsedNanos();
+            peakOpen = Math.max(peakOpen, m.getPeakOpen());
+            peakClosed = Math.max(peakClosed, m.getPeakClosed());
+            bytesPerNode = m.getBytesPerNode();
+            long[] workers = m.getWorkerExpanded();
+            if (workers.length > workerExpanded.length) {
+                workerExpanded = Arrays.copyOf(workerExpanded, workers.length);
+            }
+            for (int i = 0; i < workers.length; i++) {
+                workerExpanded[i] += workers[i];
+            }
+        }
+    }
+
+    private final Path file;
+    private final boolean prometheus;
+    private final Map<Map<String, String>, Series> series = new LinkedHashMap<>();
+
+    public MetricsExporter(Path file) {
+        this.file = file;
+        this.prometheus = file.getFileName().toString().endsWith(".prom");
+    }
+
+    public synchronized void record(Map<String, String> labels, SearchMetrics metrics) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (!prometheus) {
+            Files.writeString(file, toJson(labels, metrics) + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return;
+        }
+
+        Map<String, String> key = new LinkedHashMap<>(labels);
+        key.remove(SOURCE_LABEL);
+        series.computeIfAbsent(key, k -> new Series()).add(metrics);
+        Path temp = Files.createTempFile(parent, "metrics", ".tmp");
+        try {
+            Files.writeString(temp, toPrometheus(), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static String toJson(Map<String, String> labels, SearchMetrics m) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            sb.append('"').append(escape(label.getKey())).append("\":\"").append(escape(label.getValue())).append("\",");
+        }
+        sb.append("\"expanded\":").append(m.getExpanded())
+            .append(",\"generated\":").append(m.getGenerated())
+            .append(",\"duplicates\":").append(m.getDuplicates())
+            .append(",\"duplicate_rate\":").append(format(m.getDuplicateRate()))
+            .append(",\"peak_open\":").append(m.getPeakOpen())
+            .append(",\"peak_closed\":").append(m.getPeakClosed())
+            .append(",\"heuristic_evaluations\":").append(m.getHeuristicEvaluations())
+            .append(",\"heuristic_ms\":").append(format(m.getHeuristicNanos() / 1e6))
+            .append(",\"elapsed_ms\":").append(format(m.getElapsedNanos() / 1e6))
+            .append(",\"nodes_per_second\":").append(format(m.getNodesPerSecond()))
+            .append(",\"bytes_per_node\":").append(m.getBytesPerNode())
+            .append(",\"worker_expanded\":").append(Arrays.toString(m.getWorkerExpanded()).replace(" ", ""))
+            .append(",\"samples\":[");
+        List<SearchMetrics.Sample> samples = m.getSamples();
+        for (int i = 0; i < samples.size(); i++) {
+            SearchMetrics.Sample s = samples.get(i);
+            if (i > 0) sb.append(',');
+            sb.append('[').append(s.elapsedMillis()).append(',').append(s.expanded())
+                .append(',').append(s.open()).append(',').append(s.closed()).append(']');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        metric(sb, "searches_total", "counter", "Searches finished", m -> m.searches);
+        metric(sb, "expanded_total", "counter", "Nodes expanded", m -> m.expanded);
+        metric(sb, "generated_total", "counter", "Successors generated", m -> m.generated);
+        metric(sb, "duplicates_total", "counter", "Nodes pruned as already seen", m -> m.duplicates);
+        metric(sb, "heuristic_evaluations_total", "counter", "Heuristic evaluations", m -> m.evaluations);
+        metric(sb, "heuristic_seconds_total", "counter", "Estimated time spent in the heuristic", m -> m.heuristicNanos / 1e9);
+        metric(sb, "elapsed_seconds_total", "counter", "Wall time of the searches", m -> m.elapsedNanos / 1e9);
+        metric(sb, "peak_open", "gauge", "Largest open list size of any search", m -> m.peakOpen);
+        metric(sb, "peak_closed", "gauge", "Largest closed set size of any search", m -> m.peakClosed);
+        metric(sb, "nodes_per_second", "gauge", "Average expansion rate over all searches",
+            m -> m.elapsedNanos == 0 ? 0 : m.expanded * 1e9 / m.elapsedNanos);
+        metric(sb, "bytes_per_node", "gauge", "Estimated bytes retained per stored node in the latest search", m -> m.bytesPerNode);
+        workerMetric(sb);
+        return sb.toString();
+    }
+
+    private void metric(StringBuilder sb, String name, String type, String help, ToDoubleFunction<Series> value) {
+        String full = header(sb, name, type, help);
+        for (Map.Entry<Map<String, String>, Series> entry : series.entrySet()) {
+            sample(sb, full, entry.getKey(), null, value.applyAsDouble(entry.getValue()));
+        }
+    }
+
+    // Parallel searches only; one sample per worker index, so cardinality is bounded by the thread count
+    private void workerMetric(StringBuilder sb) {
+        String full = header(sb, "worker_expanded_total", "counter", "Nodes expanded by each worker of a parallel search");
+        for (Map.Entry<Map<String, String>, Series> entry : series.entrySet()) {
+            long[] workers = entry.getValue().workerExpanded;
+            for (int i = 0; i < workers.length; i++) {
+                sample(sb, full, entry.getKey(), String.valueOf(i), workers[i]);
+            }
+        }
+    }
+
+    private static String header(StringBuilder sb, String name, String type, String help) {
+        String full = "rush_hour_search_" + name;
+        sb.append("# HELP ").append(full).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(full).append(' ').append(type).append('\n');
+        return full;
+    }
+
+    private static void sample(StringBuilder sb, String name, Map<String, String> labels, String worker, double value) {
+        sb.append(name);
+        if (!labels.isEmpty() || worker != null) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                if (!first) sb.append(',');
+                sb.append(label.getKey()).append("=\"").append(escape(label.getValue())).append('"');
+                first = false;
+            }
+            if (worker != null) {
+                if (!first) sb.append(',');
+                sb.append("worker=\"").append(worker).append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
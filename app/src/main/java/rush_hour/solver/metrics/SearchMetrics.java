@@ -0,0 +1,160 @@
+package rush_hour.solver.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rush_hour.model.GameState;
+import rush_hour.solver.heuristic.HeuristicFunction;
+
+/**
+ * Counters for one search. Expanded, generated and duplicate-pruned nodes
+ * are counted separately; peaks track the largest open and closed sets seen.
+ * Throughput is sampled at most every SAMPLE_INTERVAL_NANOS, checked once per
+ * 256 expansions so the clock stays out of the hot loop. Heuristic time is
+ * measured on one evaluation in TIMING_STRIDE and scaled up for the same
+ * reason. Not thread-safe: parallel searches keep one per worker and merge.
+ */
+public class SearchMetrics {
+    private static final long SAMPLE_INTERVAL_NANOS = 100_000_000L;
+    private static final int TIMING_STRIDE = 16;
+
+    private long expanded, generated, duplicates;
+    private long peakOpen, peakClosed;
+    private long heuristicEvaluations, timedEvaluations, timedNanos;
+    private long retainedBytes, retainedNodes;
+    private long startNanos, endNanos, nextSample;
+    private final List<Sample> samples = new ArrayList<>();
+    private long[] workerExpanded = new long[0];
+
+    public record Sample(long elapsedMillis, long expanded, long open, long closed) {
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+        endNanos = 0;
+        nextSample = startNanos + SAMPLE_INTERVAL_NANOS;
+    }
+
+    public void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public void expanded(long open, long closed) {
+        expanded++;
+        if (open > peakOpen) peakOpen = open;
+        if (closed > peakClosed) peakClosed = closed;
+        if ((expanded & 255) == 0 && System.nanoTime() - nextSample >= 0) {
+            sample(expanded, open, closed);
+        }
+    }
+
+    public void generated(int count) {
+        generated += count;
+    }
+
+    public void duplicate() {
+        duplicates++;
+    }
+
+    public int evaluate(HeuristicFunction heuristic, GameState state) {
+        if (++heuristicEvaluations % TIMING_STRIDE != 0) {
+            return heuristic.calculate(state);
+        }
+        long begin = System.nanoTime();
+        int value = heuristic.calculate(state);
+        timedNanos += System.nanoTime() - begin;
+        timedEvaluations++;
+        return value;
+    }
+
+    // Records a throughput point now; used directly by coordinators that do not expand nodes themselves
+    public void sample(long expandedSoFar, long open, long closed) {
+        long now = System.nanoTime();
+        samples.add(new Sample((now - startNanos) / 1_000_000, expandedSoFar, open, closed));
+        nextSample = now + SAMPLE_INTERVAL_NANOS;
+    }
+
+    // Footprint of what the search held at the end, for the bytes-per-node estimate
+    public void retained(long bytes, long nodes) {
+        retainedBytes = bytes;
+        retainedNodes = nodes;
+    }
+
+    // Adds a worker's counters; peaks add up because workers hold their sets at the same time
+    public void merge(SearchMetrics other) {
+        workerExpanded = Arrays.copyOf(workerExpanded, workerExpanded.length + 1);
+        workerExpanded[workerExpanded.length - 1] = other.expanded;
+        expanded += other.expanded;
+        generated += other.generated;
+        duplicates += other.duplicates;
+        peakOpen += other.peakOpen;
+        peakClosed += other.peakClosed;
+        heuristicEvaluations += other.heuristicEvaluations;
+        timedEvaluations += other.timedEvaluations;
+        timedNanos += other.timedNanos;
+        retainedBytes += other.retainedBytes;
+        retainedNodes += other.retainedNodes;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    // Share of generated or popped nodes discarded as already seen
+    public double getDuplicateRate() {
+        long seen = expanded + duplicates;
+        return seen == 0 ? 0 : (double) duplicates / seen;
+    }
+
+    public long getPeakOpen() {
+        return peakOpen;
+    }
+
+    public long getPeakClosed() {
+        return peakClosed;
+    }
+
+    public long getHeuristicEvaluations() {
+        return heuristicEvaluations;
+    }
+
+    public long getHeuristicNanos() {
+        return timedEvaluations == 0 ? 0 : timedNanos * heuristicEvaluations / timedEvaluations;
+    }
+
+    public long getElapsedNanos() {
+        if (startNanos == 0) return 0;
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    public double getNodesPerSecond() {
+        long elapsed = getElapsedNanos();
+        return elapsed <= 0 ? 0 : expanded * 1e9 / elapsed;
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public long getBytesPerNode() {
+        return retainedNodes == 0 ? 0 : retainedBytes / retainedNodes;
+    }
+
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    // Nodes expanded by each merged worker, in merge order; empty for a single-threaded search
+    public long[] getWorkerExpanded() {
+        return workerExpanded.clone();
+    }
+}
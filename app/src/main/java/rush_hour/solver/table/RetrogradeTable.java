@@ -0,0 +1,147 @@
+package rush_hour.solver.table;
+
+import java.util.Arrays;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+import rush_hour.solver.algorithm.SearchBudget;
+
+/**
+ * Exact number of moves to the goal for every configuration of a layout that
+ * has been seen. A configuration's rank is its discovery order; a StateTable
+ * maps packed keys to ranks and the distances sit in a dense array indexed by
+ * rank. Looking up a configuration outside the known components enumerates
+ * its component and runs a retrograde BFS from the goals inside it, so
+ * variants of one layout that cannot reach each other share a table.
+ */
+public class RetrogradeTable {
+    public static final int UNSOLVABLE = -1;
+    public static final int ABORTED = -2;
+
+    private final GameLayout layout;
+    private final int keyWords;
+    private final int stateLimit;
+    private StateTable ranks;
+    private final long[] scratch;
+    private final byte[] offsets;
+    private long[] keys = new long[0];
+    private int[] distances = new int[0];
+    private int size = 0;
+
+    public RetrogradeTable(GameLayout layout, int stateLimit) {
+        this.layout = layout;
+        this.keyWords = layout.getKeyWords();
+        this.stateLimit = stateLimit;
+        this.ranks = new StateTable(layout);
+        this.scratch = new long[keyWords];
+        this.offsets = new byte[layout.getPieceCount()];
+    }
+
+    // Moves until the primary piece reaches the exit, or UNSOLVABLE
+    public int distance(GameState state) {
+        return distance(state, SearchBudget.unlimited());
+    }
+
+    // As above, or ABORTED if the budget ran out or the component would exceed the state limit
+    public synchronized int distance(GameState state, SearchBudget budget) {
+        int rank = ranks.get(state, -1);
+        if (rank < 0) {
+            try {
+                rank = addComponent(state, budget);
+            } catch (RuntimeException e) {
+                reset();
+                throw e;
+            }
+            if (rank < 0) {
+                reset();
+                return ABORTED;
+            }
+        }
+        return distances[rank];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long sizeInBytes() {
+        return ranks.sizeInBytes() + (long) keys.length * Long.BYTES + (long) distances.length * Integer.BYTES;
+    }
+
+    // A half-enumerated component would report wrong distances, so start over and release the memory
+    private void reset() {
+        ranks = new StateTable(layout);
+        keys = new long[0];
+        distances = new int[0];
+        size = 0;
+    }
+
+    private int addComponent(GameState root, SearchBudget budget) {
+        int first = size;
+        int rootRank = add(root);
+        if (rootRank < 0) {
+            budget.stop(SearchBudget.StopReason.MEMORY_LIMIT);
+            return -1;
+        }
+
+        // Forward BFS numbers every configuration reachable from the root
+        for (int rank = first; rank < size; rank++) {
+            if (budget.exhausted(rank - first, size - rank, sizeInBytes())) {
+                return -1;
+            }
+            for (GameState neighbor : stateAt(rank).generateSuccessors()) {
+                if (ranks.get(neighbor, -1) < 0 && add(neighbor) < 0) {
+                    budget.stop(SearchBudget.StopReason.MEMORY_LIMIT);
+                    return -1;
+                }
+            }
+        }
+
+        // Retrograde BFS from every goal; moves are reversible, so successors are also predecessors
+        int[] queue = new int[size - first];
+        int head = 0, tail = 0;
+        for (int rank = first; rank < size; rank++) {
+            if (stateAt(rank).isGoal()) {
+                distances[rank] = 0;
+                queue[tail++] = rank;
+            }
+        }
+        while (head < tail) {
+            if (budget.exhausted(size - first + head, tail - head, sizeInBytes())) {
+                return -1;
+            }
+            int rank = queue[head++];
+            for (GameState neighbor : stateAt(rank).generateSuccessors()) {
+                int next = ranks.get(neighbor, -1);
+                if (distances[next] == UNSOLVABLE) {
+                    distances[next] = distances[rank] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return rootRank;
+    }
+
+    // Rank of the new configuration, or -1 once the table holds stateLimit of them
+    private int add(GameState state) {
+        if (size == stateLimit) {
+            return -1;
+        }
+        if (size == distances.length) {
+            int capacity = Math.max(1024, size * 2);
+            keys = Arrays.copyOf(keys, capacity * keyWords);
+            distances = Arrays.copyOf(distances, capacity);
+        }
+        state.packKey(scratch);
+        System.arraycopy(scratch, 0, keys, size * keyWords, keyWords);
+        distances[size] = UNSOLVABLE;
+        ranks.put(state, size);
+        return size++;
+    }
+
+    private GameState stateAt(int rank) {
+        System.arraycopy(keys, rank * keyWords, scratch, 0, keyWords);
+        layout.unpackKey(scratch, offsets);
+        return GameState.of(layout, offsets, "Rank " + rank);
+    }
+}
@@ -0,0 +1,161 @@
+package rush_hour.solver.table;
+
+import java.util.Arrays;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+
+/**
+ * Open-addressing hash table from packed state keys to int values, stored in
+ * flat primitive arrays. Works as a closed set (add/contains) or as a
+ * transposition table (get/put). Not thread-safe.
+ */
+public class StateTable {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private final int keyWords;
+    private final long[] scratch;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public StateTable(GameLayout layout) {
+        this(layout.getKeyWords(), 1 << 12);
+    }
+
+    public StateTable(int keyWords, int initialCapacity) {
+        this.keyWords = keyWords;
+        this.scratch = new long[keyWords];
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public boolean add(GameState state) {
+        state.packKey(scratch);
+        return addKey(scratch);
+    }
+
+    public boolean contains(GameState state) {
+        state.packKey(scratch);
+        return containsKey(scratch);
+    }
+
+    public int get(GameState state, int missing) {
+        state.packKey(scratch);
+        return getKey(scratch, missing);
+    }
+
+    public void put(GameState state, int value) {
+        state.packKey(scratch);
+        putKey(scratch, value);
+    }
+
+    public boolean addKey(long[] key) {
+        int slot = find(key);
+        if (values[slot] != EMPTY) return false;
+        insert(slot, key, 0);
+        return true;
+    }
+
+    public boolean containsKey(long[] key) {
+        return values[find(key)] != EMPTY;
+    }
+
+    public int getKey(long[] key, int missing) {
+        int value = values[find(key)];
+        return value == EMPTY ? missing : value;
+    }
+
+    public void putKey(long[] key, int value) {
+        if (value == EMPTY) {
+            throw new IllegalArgumentException("Value " + EMPTY + " is reserved");
+        }
+        int slot = find(key);
+        if (values[slot] != EMPTY) {
+            values[slot] = value;
+        } else {
+            insert(slot, key, value);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    // Approximate heap footprint of the backing arrays
+    public long sizeInBytes() {
+        return (long) keys.length * Long.BYTES + (long) values.length * Integer.BYTES;
+    }
+
+    private void insert(int slot, long[] key, int value) {
+        System.arraycopy(key, 0, keys, slot * keyWords, keyWords);
+        values[slot] = value;
+        if (++size > (mask + 1) * LOAD_FACTOR) {
+            resize();
+        }
+    }
+
+    // Linear probing; returns the slot holding key or the empty slot where it belongs
+    private int find(long[] key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != EMPTY && !matches(slot, key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean matches(int slot, long[] key) {
+        int base = slot * keyWords;
+        for (int w = 0; w < keyWords; w++) {
+            if (keys[base + w] != key[w]) return false;
+        }
+        return true;
+    }
+
+    private int hash(long[] key) {
+        long h = 0;
+        for (int w = 0; w < keyWords; w++) {
+            h = mix(h ^ key[w]);
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * keyWords];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(values.length << 1);
+
+        long[] key = new long[keyWords];
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] == EMPTY) continue;
+            System.arraycopy(oldKeys, slot * keyWords, key, 0, keyWords);
+            int target = find(key);
+            System.arraycopy(key, 0, keys, target * keyWords, keyWords);
+            values[target] = oldValues[slot];
+        }
+    }
+}
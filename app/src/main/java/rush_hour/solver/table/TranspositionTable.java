@@ -0,0 +1,157 @@
+package rush_hour.solver.table;
+
+import java.util.Arrays;
+
+import rush_hour.model.GameLayout;
+import rush_hour.model.GameState;
+
+/**
+ * Fixed-size transposition table for iterative deepening. Each entry keeps
+ * the cost a state was reached with in the current iteration and a refined
+ * lower bound on its distance to the goal, which stays valid across
+ * iterations. Slots are grouped in buckets of two; when a bucket is full
+ * the replacement policy decides which entry is lost. Losing an entry only
+ * costs pruning power, never correctness.
+ */
+public class TranspositionTable {
+    public enum Replacement {
+        // Keep the entries closest to the root, whose subtrees are the most expensive to redo
+        DEPTH_PREFERRED,
+        // First slot is depth-preferred, second slot always takes the newest entry
+        TWO_TIER
+    }
+
+    private static final int EMPTY = -1;
+
+    private final int keyWords;
+    private final Replacement replacement;
+    private final long[] scratch;
+    private final long[] keys;
+    private final int[] costs;
+    private final int[] iterations;
+    private final int[] bounds;
+    private final int bucketMask;
+    private int iteration = 0;
+
+    public TranspositionTable(GameLayout layout, int megabytes, Replacement replacement) {
+        this.keyWords = layout.getKeyWords();
+        this.replacement = replacement;
+        this.scratch = new long[keyWords];
+
+        long slotBytes = (long) keyWords * Long.BYTES + 3L * Integer.BYTES;
+        long slots = Math.max(2, ((long) megabytes << 20) / slotBytes);
+        int buckets = Integer.highestOneBit((int) Math.min(1 << 29, slots / 2));
+
+        this.keys = new long[buckets * 2 * keyWords];
+        this.costs = new int[buckets * 2];
+        this.iterations = new int[buckets * 2];
+        this.bounds = new int[buckets * 2];
+        this.bucketMask = buckets - 1;
+        Arrays.fill(costs, EMPTY);
+    }
+
+    // Costs recorded before this call no longer prune; refined bounds are kept
+    public void newIteration() {
+        iteration++;
+    }
+
+    // Cost the state was reached with during the current iteration, or Integer.MAX_VALUE
+    public int getCost(GameState state) {
+        int slot = find(state);
+        return slot < 0 || iterations[slot] != iteration ? Integer.MAX_VALUE : costs[slot];
+    }
+
+    // Best known lower bound on the state's distance to the goal, or 0
+    public int getBound(GameState state) {
+        int slot = find(state);
+        return slot < 0 ? 0 : bounds[slot];
+    }
+
+    public void store(GameState state, int cost, int bound) {
+        state.packKey(scratch);
+        int first = bucket(scratch) * 2;
+
+        for (int slot = first; slot < first + 2; slot++) {
+            if (costs[slot] != EMPTY && matches(slot, scratch)) {
+                write(slot, cost, Math.max(bound, bounds[slot]));
+                return;
+            }
+        }
+
+        int target;
+        if (costs[first] == EMPTY || outranks(cost, first)) {
+            // Demote the depth-preferred entry to the second slot rather than dropping it
+            if (replacement == Replacement.TWO_TIER && costs[first] != EMPTY) {
+                copy(first, first + 1);
+            }
+            target = first;
+        } else if (replacement == Replacement.TWO_TIER || costs[first + 1] == EMPTY || outranks(cost, first + 1)) {
+            target = first + 1;
+        } else {
+            return;
+        }
+        System.arraycopy(scratch, 0, keys, target * keyWords, keyWords);
+        write(target, cost, bound);
+    }
+
+    public int capacity() {
+        return costs.length;
+    }
+
+    public long sizeInBytes() {
+        return (long) keys.length * Long.BYTES + 3L * costs.length * Integer.BYTES;
+    }
+
+    // Entries from older iterations are worth less than any entry from the current one
+    private boolean outranks(int cost, int slot) {
+        return iterations[slot] != iteration || cost <= costs[slot];
+    }
+
+    private void write(int slot, int cost, int bound) {
+        costs[slot] = cost;
+        iterations[slot] = iteration;
+        bounds[slot] = bound;
+    }
+
+    private void copy(int from, int to) {
+        System.arraycopy(keys, from * keyWords, keys, to * keyWords, keyWords);
+        costs[to] = costs[from];
+        iterations[to] = iterations[from];
+        bounds[to] = bounds[from];
+    }
+
+    private int find(GameState state) {
+        state.packKey(scratch);
+        int first = bucket(scratch) * 2;
+        for (int slot = first; slot < first + 2; slot++) {
+            if (costs[slot] != EMPTY && matches(slot, scratch)) return slot;
+        }
+        return -1;
+    }
+
+    private boolean matches(int slot, long[] key) {
+        int base = slot * keyWords;
+        for (int w = 0; w < keyWords; w++) {
+            if (keys[base + w] != key[w]) return false;
+        }
+        return true;
+    }
+
+    private int bucket(long[] key) {
+        long h = 0;
+        for (int w = 0; w < keyWords; w++) {
+            h = mix(h ^ key[w]);
+        }
+        return (int) (h ^ (h >>> 32)) & bucketMask;
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,134 @@
+package rush_hour.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import rush_hour.solver.GameSolver;
+
+/**
+ * Boards past 64 cells, where occupancy and packed keys span several words.
+ * The puzzle is test-case1 set into the bottom-right of a 12x12 board whose
+ * other cells hold pieces that can never move, so the search stays as small
+ * as the 6x6 one while every key needs more than one word.
+ */
+class LargeBoardTest {
+    private static final int SIZE = 12;
+    private static final int PUZZLE_ROW = 3;
+    private static final int PUZZLE_COL = 6;
+    private static final String[] PUZZLE = {
+        "AAB..F",
+        "..BCDF",
+        "GPPCDF",
+        "GH.III",
+        "GHJ...",
+        "LLJMM.",
+    };
+    private static final String FILLER_IDS = "abcdefghijkl";
+
+    @Test
+    void keysSpanSeveralWords() {
+        GameLayout layout = largeBoard().getLayout();
+
+        assertTrue(layout.getRows() * layout.getCols() > 64);
+        assertTrue(layout.getKeyWords() > 1);
+    }
+
+    @Test
+    void packKeyRoundTripsAlongSolution() {
+        GameState start = largeBoard();
+        GameLayout layout = start.getLayout();
+        List<GameState> path = GameSolver.solve(start, "A*", "Blocker Count").getPath();
+        assertNotNull(path);
+
+        long[] key = new long[layout.getKeyWords()];
+        byte[] offsets = new byte[layout.getPieceCount()];
+        // The exit node has moved the primary piece off the board and is never keyed
+        for (GameState state : path.subList(0, path.size() - 1)) {
+            byte[] expected = new byte[layout.getPieceCount()];
+            for (int i = 0; i < expected.length; i++) expected[i] = (byte) state.getOffset(i);
+
+            state.packKey(key);
+            layout.unpackKey(key, offsets);
+            assertArrayEquals(expected, offsets);
+        }
+    }
+
+    @Test
+    void adjustKeyMatchesRepack() {
+        GameState start = largeBoard();
+        GameLayout layout = start.getLayout();
+        long[] adjusted = new long[layout.getKeyWords()];
+        long[] packed = new long[layout.getKeyWords()];
+
+        for (int i = 0; i < layout.getPieceCount(); i++) {
+            for (int dir = -1; dir <= 1; dir += 2) {
+                if (!start.canMove(i, dir)) continue;
+                start.packKey(adjusted);
+                layout.adjustKey(adjusted, i, dir);
+                start.move(i, dir).packKey(packed);
+                assertArrayEquals(packed, adjusted);
+            }
+        }
+    }
+
+    @Test
+    void aStarAndBidirectionalAgree() {
+        GameState start = largeBoard();
+        List<GameState> aStar = GameSolver.solve(start, "A*", "Blocker Count").getPath();
+        List<GameState> bidirectional = GameSolver.solve(start, "Bidirectional BFS", "Blocker Count").getPath();
+
+        assertNotNull(aStar);
+        assertNotNull(bidirectional);
+        assertEquals(aStar.size(), bidirectional.size());
+    }
+
+    // One piece fills each row above and below the puzzle, and each column to its left
+    private static GameState largeBoard() {
+        char[][] grid = new char[SIZE][SIZE];
+        for (int r = 0; r < PUZZLE.length; r++) {
+            for (int c = 0; c < PUZZLE[r].length(); c++) {
+                grid[PUZZLE_ROW + r][PUZZLE_COL + c] = PUZZLE[r].charAt(c);
+            }
+        }
+
+        int filler = 0;
+        for (int r = 0; r < SIZE; r++) {
+            if (r >= PUZZLE_ROW && r < PUZZLE_ROW + PUZZLE.length) continue;
+            for (int c = 0; c < SIZE; c++) grid[r][c] = FILLER_IDS.charAt(filler);
+            filler++;
+        }
+        for (int c = 0; c < PUZZLE_COL; c++) {
+            for (int r = PUZZLE_ROW; r < PUZZLE_ROW + PUZZLE.length; r++) grid[r][c] = FILLER_IDS.charAt(filler);
+            filler++;
+        }
+
+        // Filler first, so the puzzle's pieces straddle the boundary between key words
+        List<Character> ids = new ArrayList<>();
+        for (char[] row : grid) {
+            for (char cell : row) {
+                if (cell != 0 && cell != '.' && !ids.contains(cell)) ids.add(cell);
+            }
+        }
+        List<GamePiece> pieces = new ArrayList<>();
+        for (char id : ids) {
+            List<int[]> positions = new ArrayList<>();
+            for (int r = 0; r < SIZE; r++) {
+                for (int c = 0; c < SIZE; c++) {
+                    if (grid[r][c] == id) positions.add(new int[] { c, r });
+                }
+            }
+            pieces.add(new GamePiece(id, positions));
+        }
+
+        GameBoard board = new GameBoard(SIZE, SIZE, GameEnums.GoalPlacement.RIGHT, PUZZLE_ROW + 2);
+        board.placePieces(pieces);
+        return new GameState(board, pieces, null, "Start");
+    }
+}
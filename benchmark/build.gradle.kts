@@ -0,0 +1,32 @@
+/*
+ * JMH benchmarks for the solver. Run with:
+ *   ./gradlew :benchmark:jmh
+ * Narrow the run with -Pjmh.includes=<regex>, e.g. -Pjmh.includes=HeuristicBenchmark
+ */
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmh(project(":app"))
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    jvmArgsAppend.add("-Dpuzzle.dir=${rootProject.projectDir}/test/input")
+    findProperty("jmh.includes")?.let { includes.add(it.toString()) }
+}
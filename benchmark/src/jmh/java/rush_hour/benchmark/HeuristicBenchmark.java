@@ -0,0 +1,55 @@
+package rush_hour.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rush_hour.model.GameState;
+import rush_hour.solver.GameSolver;
+import rush_hour.solver.heuristic.HeuristicFunction;
+
+// HeuristicFunction.calculate throughput over a fixed sample of reachable states
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicBenchmark {
+    static final int SAMPLE = 4096;
+
+    @Param({"test-case1", "test-case2", "test-case3", "generated-6x6-13-25"})
+    public String puzzle;
+
+    @Param({"Distance", "Blocker Count", "Combined", "Blocking Chain", "Pattern Database"})
+    public String heuristicName;
+
+    private GameState[] states;
+    private HeuristicFunction heuristic;
+
+    @Setup
+    public void setup() {
+        states = Puzzles.sample(Puzzles.load(puzzle), SAMPLE);
+        heuristic = GameSolver.createHeuristic(heuristicName);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE)
+    public void calculate(Blackhole blackhole) {
+        for (GameState state : states) {
+            blackhole.consume(heuristic.calculate(state));
+        }
+    }
+}
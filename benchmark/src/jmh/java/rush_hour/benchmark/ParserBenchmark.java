@@ -0,0 +1,87 @@
+package rush_hour.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rush_hour.io.PuzzleCollectionReader;
+
+// Puzzles loaded per second: one collection file versus one file per puzzle
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    static final int PUZZLES = 3000;
+
+    private Path directory;
+    private Path collection;
+    private final List<Path> files = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        String dir = System.getProperty("puzzle.dir", "test/input");
+        List<String> sources = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            sources.add(Files.readString(Path.of(dir, "test-case" + i + ".txt")).strip());
+        }
+
+        directory = Files.createTempDirectory("rush-hour-parser");
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < PUZZLES; i++) {
+            String puzzle = sources.get(i % sources.size());
+            joined.append(puzzle).append("\n\n");
+            Path file = directory.resolve("puzzle-" + i + ".txt");
+            Files.writeString(file, puzzle + "\n");
+            files.add(file);
+        }
+        collection = directory.resolve("collection.txt");
+        Files.writeString(collection, joined);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.list(directory)) {
+            for (Path file : walk.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public void collection(Blackhole bh) throws IOException {
+        try (Stream<PuzzleCollectionReader.Entry> entries = PuzzleCollectionReader.stream(collection)) {
+            entries.forEach(bh::consume);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public void filePerPuzzle(Blackhole bh) {
+        for (Path file : files) {
+            bh.consume(Puzzles.fromFile(file.toString()));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package rush_hour.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import rush_hour.model.GameBoard;
+import rush_hour.model.GameEnums;
+import rush_hour.model.GamePiece;
+import rush_hour.model.GameState;
+import rush_hour.solver.GameSolver;
+
+/**
+ * Deterministic random puzzles for benchmarks. The primary piece is a
+ * horizontal 2-car with the exit on the right; other pieces are 2- or 3-long
+ * and never horizontal in the primary row, which would make the puzzle
+ * unsolvable. Attempts continue from the seed until one needs at least
+ * minMoves moves, so the same arguments always give the same puzzle.
+ */
+final class PuzzleGenerator {
+    private static final int MAX_ATTEMPTS = 10_000;
+
+    private PuzzleGenerator() {}
+
+    static GameState generate(int rows, int cols, int pieceCount, int minMoves, long seed) {
+        GameState best = null;
+        int bestMoves = -1;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            GameState candidate = place(rows, cols, pieceCount, new Random(seed + attempt));
+            if (candidate == null) continue;
+
+            int moves = GameSolver.solve(candidate, "A*", "Blocker Count").getPath().size() - 1;
+            if (moves >= minMoves) return candidate;
+            if (moves > bestMoves) {
+                best = candidate;
+                bestMoves = moves;
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("Could not place " + pieceCount + " pieces on " + rows + "x" + cols);
+        }
+        return best;
+    }
+
+    // First placement from the seed that fits every piece, without checking how hard it is
+    static GameState place(int rows, int cols, int pieceCount, long seed) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            GameState candidate = place(rows, cols, pieceCount, new Random(seed + attempt));
+            if (candidate != null) return candidate;
+        }
+        throw new IllegalArgumentException("Could not place " + pieceCount + " pieces on " + rows + "x" + cols);
+    }
+
+    static GameState place(int rows, int cols, int pieceCount, Random random) {
+        int exitRow = (rows - 1) / 2;
+        char[][] grid = new char[rows][cols];
+        List<GamePiece> pieces = new ArrayList<>();
+
+        int primaryCol = random.nextInt(Math.max(1, cols - 3));
+        pieces.add(occupy(grid, 'P', exitRow, primaryCol, 2, true));
+
+        char id = 'A';
+        int failures = 0;
+        while (pieces.size() < pieceCount && failures < 1000) {
+            boolean horizontal = random.nextBoolean();
+            int length = random.nextInt(4) == 0 ? 3 : 2;
+            int row = random.nextInt(horizontal ? rows : rows - length + 1);
+            int col = random.nextInt(horizontal ? cols - length + 1 : cols);
+            if ((horizontal && row == exitRow) || !fits(grid, row, col, length, horizontal)) {
+                failures++;
+                continue;
+            }
+            pieces.add(occupy(grid, nextId(id), row, col, length, horizontal));
+            id = (char) (nextId(id) + 1);
+        }
+        if (pieces.size() < pieceCount) return null;
+
+        GameBoard board = new GameBoard(rows, cols, GameEnums.GoalPlacement.RIGHT, exitRow);
+        board.placePieces(pieces);
+        return new GameState(board, pieces, null, "Start");
+    }
+
+    // Piece ids skip the primary 'P' and the exit marker 'K'
+    private static char nextId(char id) {
+        while (id == 'P' || id == 'K' || id == '.') id++;
+        return id;
+    }
+
+    private static boolean fits(char[][] grid, int row, int col, int length, boolean horizontal) {
+        for (int k = 0; k < length; k++) {
+            if (grid[horizontal ? row : row + k][horizontal ? col + k : col] != 0) return false;
+        }
+        return true;
+    }
+
+    private static GamePiece occupy(char[][] grid, char id, int row, int col, int length, boolean horizontal) {
+        List<int[]> positions = new ArrayList<>();
+        for (int k = 0; k < length; k++) {
+            int r = horizontal ? row : row + k;
+            int c = horizontal ? col + k : col;
+            grid[r][c] = id;
+            positions.add(new int[] { c, r });
+        }
+        return new GamePiece(id, positions);
+    }
+}
@@ -0,0 +1,57 @@
+package rush_hour.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import rush_hour.io.InputReader;
+import rush_hour.model.GameState;
+import rush_hour.solver.table.StateTable;
+
+// Benchmark fixtures: puzzle files from test/input and generated puzzles
+final class Puzzles {
+    private Puzzles() {}
+
+    // "test-case1" loads test/input/test-case1.txt; "generated-6x6-13-20" generates a puzzle (see PuzzleGenerator);
+    // "placed-16x16-70" only places the pieces, for boards too large to grade by solving
+    static GameState load(String name) {
+        if (name.startsWith("placed-")) {
+            String[] spec = name.substring("placed-".length()).split("[x-]");
+            return PuzzleGenerator.place(
+                Integer.parseInt(spec[0]), Integer.parseInt(spec[1]), Integer.parseInt(spec[2]), 42L);
+        }
+        if (name.startsWith("generated-")) {
+            String[] spec = name.substring("generated-".length()).split("[x-]");
+            return PuzzleGenerator.generate(
+                Integer.parseInt(spec[0]), Integer.parseInt(spec[1]),
+                Integer.parseInt(spec[2]), Integer.parseInt(spec[3]), 42L);
+        }
+        String dir = System.getProperty("puzzle.dir", "test/input");
+        return fromFile(new File(dir, name + ".txt").getPath());
+    }
+
+    static GameState fromFile(String path) {
+        return new InputReader(path).createInitialState();
+    }
+
+    // Exactly size states reachable from root in BFS order, cycling if the space is smaller
+    static GameState[] sample(GameState root, int size) {
+        List<GameState> seen = new ArrayList<>();
+        StateTable visited = new StateTable(root.getLayout());
+        visited.add(root);
+        seen.add(root);
+        for (int head = 0; head < seen.size() && seen.size() < size; head++) {
+            for (GameState next : seen.get(head).generateSuccessors()) {
+                if (seen.size() < size && visited.add(next)) {
+                    seen.add(next);
+                }
+            }
+        }
+
+        GameState[] states = new GameState[size];
+        for (int i = 0; i < size; i++) {
+            states[i] = seen.get(i % seen.size());
+        }
+        return states;
+    }
+}
@@ -0,0 +1,87 @@
+package rush_hour.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rush_hour.model.GameState;
+import rush_hour.solver.GameSolver;
+import rush_hour.solver.algorithm.SearchBudget;
+import rush_hour.solver.metrics.SearchMetrics;
+
+/**
+ * How throughput and memory change with board size and piece count. expand
+ * reports successor generation per state; search runs A* capped at
+ * MAX_NODES expansions; its expanded counter is nodes/sec, and the
+ * retainedBytes counter divided by expanded is bytes/node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+    static final int SAMPLE = 4096;
+    static final long MAX_NODES = 50_000;
+
+    @Param({"placed-6x6-12", "placed-9x9-24", "placed-12x12-40", "placed-16x16-70", "placed-20x20-110"})
+    public String board;
+
+    @Param({"Combined", "Blocking Chain"})
+    public String heuristic;
+
+    private GameState initialState;
+    private GameState[] states;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long expanded;
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expanded = 0;
+            retainedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        initialState = Puzzles.load(board);
+        states = Puzzles.sample(initialState, SAMPLE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE)
+    public void expand(Blackhole blackhole) {
+        for (GameState state : states) {
+            blackhole.consume(state.generateSuccessors());
+        }
+    }
+
+    @Benchmark
+    public GameSolver.SolverResult search(Footprint footprint) {
+        GameSolver.SolverResult result = GameSolver.solve(initialState, "A*", heuristic, "Binary Heap",
+                new SearchBudget(0, MAX_NODES, 0, 0));
+        SearchMetrics metrics = result.getMetrics();
+        footprint.expanded += metrics.getExpanded();
+        footprint.retainedBytes += metrics.getRetainedBytes();
+        return result;
+    }
+}
@@ -0,0 +1,168 @@
+package rush_hour.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rush_hour.model.GameState;
+import rush_hour.solver.GameSolver;
+
+/**
+ * End-to-end GameSolver.solve, one benchmark per family of algorithms so each
+ * only sweeps the parameters it reads: the frontier matters only to the
+ * StandardSearch algorithms, and UCS and the blind searches ignore the
+ * heuristic. IDA* is limited to the small puzzles, since its repeated
+ * iterations take minutes per call on the others, and Retrograde skips
+ * test-case3, whose state space exceeds its table limit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    static final String UNUSED_HEURISTIC = "Combined"; // Passed to algorithms that ignore it
+
+    @State(Scope.Benchmark)
+    public static class UniformCost {
+        @Param({"test-case1", "test-case2", "test-case3", "generated-6x6-13-25"})
+        public String puzzle;
+
+        @Param({"Binary Heap", "Bucket Queue"})
+        public String frontier;
+
+        GameState initialState;
+
+        @Setup
+        public void setup() {
+            initialState = Puzzles.load(puzzle);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BestFirst {
+        @Param({"test-case1", "test-case2", "test-case3", "generated-6x6-13-25"})
+        public String puzzle;
+
+        @Param({"Greedy Best First", "A*"})
+        public String algorithm;
+
+        @Param({"Distance", "Blocker Count", "Combined", "Blocking Chain", "Pattern Database"})
+        public String heuristic;
+
+        @Param({"Binary Heap", "Bucket Queue"})
+        public String frontier;
+
+        GameState initialState;
+
+        @Setup
+        public void setup() {
+            initialState = Puzzles.load(puzzle);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Informed {
+        @Param({"test-case1", "test-case2", "test-case3", "generated-6x6-13-25"})
+        public String puzzle;
+
+        @Param({"ARA*", "Fringe", "HDA*", "SMA*", "Beam Search"})
+        public String algorithm;
+
+        @Param({"Distance", "Blocker Count", "Combined", "Blocking Chain", "Pattern Database"})
+        public String heuristic;
+
+        GameState initialState;
+
+        @Setup
+        public void setup() {
+            initialState = Puzzles.load(puzzle);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IterativeDeepening {
+        @Param({"test-case1", "generated-6x6-13-25"})
+        public String puzzle;
+
+        @Param({"Distance", "Blocker Count", "Combined", "Blocking Chain", "Pattern Database"})
+        public String heuristic;
+
+        GameState initialState;
+
+        @Setup
+        public void setup() {
+            initialState = Puzzles.load(puzzle);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Blind {
+        @Param({"test-case1", "test-case2", "test-case3", "generated-6x6-13-25"})
+        public String puzzle;
+
+        @Param({"Bidirectional BFS", "External BFS"})
+        public String algorithm;
+
+        GameState initialState;
+
+        @Setup
+        public void setup() {
+            initialState = Puzzles.load(puzzle);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Retrograde {
+        @Param({"test-case1", "test-case2", "generated-6x6-13-25"})
+        public String puzzle;
+
+        GameState initialState;
+
+        @Setup
+        public void setup() {
+            initialState = Puzzles.load(puzzle);
+        }
+    }
+
+    @Benchmark
+    public GameSolver.SolverResult uniformCost(UniformCost state) {
+        return GameSolver.solve(state.initialState, "UCS", UNUSED_HEURISTIC, state.frontier);
+    }
+
+    @Benchmark
+    public GameSolver.SolverResult bestFirst(BestFirst state) {
+        return GameSolver.solve(state.initialState, state.algorithm, state.heuristic, state.frontier);
+    }
+
+    @Benchmark
+    public GameSolver.SolverResult informed(Informed state) {
+        return GameSolver.solve(state.initialState, state.algorithm, state.heuristic);
+    }
+
+    @Benchmark
+    public GameSolver.SolverResult iterativeDeepening(IterativeDeepening state) {
+        return GameSolver.solve(state.initialState, "IDA*", state.heuristic);
+    }
+
+    @Benchmark
+    public GameSolver.SolverResult blind(Blind state) {
+        return GameSolver.solve(state.initialState, state.algorithm, UNUSED_HEURISTIC);
+    }
+
+    // The table of a layout is cached across calls, so after the first call this measures the walk alone
+    @Benchmark
+    public GameSolver.SolverResult retrograde(Retrograde state) {
+        return GameSolver.solve(state.initialState, "Retrograde", UNUSED_HEURISTIC);
+    }
+}
@@ -0,0 +1,64 @@
+package rush_hour.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rush_hour.model.GameState;
+import rush_hour.solver.table.StateTable;
+
+// Closed-set cost: inserting into a fresh table, and lookups that hit half the time
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateTableBenchmark {
+    static final int SAMPLE = 8192;
+
+    @Param({"test-case2", "test-case3", "generated-6x6-13-25"})
+    public String puzzle;
+
+    private GameState[] states;
+    private StateTable halfFull;
+
+    @Setup
+    public void setup() {
+        states = Puzzles.sample(Puzzles.load(puzzle), SAMPLE);
+        halfFull = new StateTable(states[0].getLayout());
+        for (int i = 0; i < SAMPLE; i += 2) {
+            halfFull.add(states[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE)
+    public StateTable insert() {
+        StateTable table = new StateTable(states[0].getLayout());
+        for (GameState state : states) {
+            table.add(state);
+        }
+        return table;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE)
+    public void lookup(Blackhole blackhole) {
+        for (GameState state : states) {
+            blackhole.consume(halfFull.contains(state));
+        }
+    }
+}
@@ -12,3 +12,4 @@ plugins {
 
 rootProject.name = "Tucil3_13523146_13523152"
 include("app")
+include("benchmark")